@@ -3,30 +3,33 @@ package com.dogcuisine;
 import android.app.Application;
 import android.content.ContentUris;
 import android.content.ContentValues;
+import android.content.pm.ApplicationInfo;
 import android.database.Cursor;
 import android.net.Uri;
 import android.os.Environment;
 import android.provider.MediaStore;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import coil.ImageLoader;
+import coil.ImageLoaderFactory;
+
 import com.dogcuisine.data.AppDatabase;
 import com.dogcuisine.data.CategoryDao;
 import com.dogcuisine.data.CategoryEntity;
 import com.dogcuisine.data.RecipeEntity;
-import com.dogcuisine.data.StepItem;
 import com.dogcuisine.data.UserProfileEntity;
 import com.dogcuisine.sync.WebDavSyncConfig;
 import com.dogcuisine.sync.WebDavSyncManager;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.dogcuisine.ui.AppImageLoader;
+import com.dogcuisine.ui.ImageCacheStats;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.lang.reflect.Type;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -35,17 +38,22 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
-public class App extends Application {
+public class App extends Application implements ImageLoaderFactory {
 
     private static App instance;
     private AppDatabase database;
-    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+    private final AppExecutors executors = new AppExecutors();
+    private final RecipeFlagWriter recipeFlagWriter = new RecipeFlagWriter(this::getDatabase, executors.write());
+    private final ImageCacheStats imageCacheStats = new ImageCacheStats();
+    // 首次运行的默认数据写入后放行，写入失败也会放行
+    private final CountDownLatch seeded = new CountDownLatch(1);
     private final ExecutorService autoSyncExecutor = Executors.newSingleThreadExecutor();
     private final ExecutorService autoBackupExecutor = Executors.newSingleThreadExecutor();
     private final AtomicBoolean autoSyncRunning = new AtomicBoolean(false);
@@ -56,6 +64,8 @@ public class App extends Application {
     private static final String AUTO_BACKUP_PREFIX = "dogcuisine_autobackup_";
     private static final long AUTO_BACKUP_INTERVAL_MS = 24 * 60 * 60 * 1000L; // 1 day
     private static final int AUTO_BACKUP_KEEP_COUNT = 3;
+    // 新导入的图片在菜谱保存前还没有引用记录（编辑页可能开着很久，或在进程重建后恢复），这段时间内修改过的不清理
+    private static final long UNUSED_IMAGE_GRACE_MS = 24 * 60 * 60 * 1000L; // 1 day
 
     @Override
     public void onCreate() {
@@ -63,68 +73,96 @@ public class App extends Application {
         instance = this;
         database = AppDatabase.getInstance(this);
 
-        // 确保数据库文件创建，并在首次运行时填充示例数据（仅当表为空）
-        ioExecutor.execute(() -> {
-            database.getOpenHelper().getWritableDatabase();
-            CategoryDao categoryDao = database.categoryDao();
-            Long defaultCategoryId = ensureDefaultCategories(categoryDao);
-            ensureUserProfile(database);
-
-            long count = database.recipeDao().count();
-            if (count == 0) {
-                long now = System.currentTimeMillis();
-                List<RecipeEntity> seeds = Arrays.asList(
-                        new RecipeEntity(
-                                null,
-                                getString(R.string.sample_recipe_1_name),
-                                now,
-                                now,
-                                getString(R.string.sample_recipe_1_desc),
-                                null,
-                                "[]",
-                                "",
-                                defaultCategoryId,
-                                0,
-                                0
-                        ),
-                        new RecipeEntity(
-                                null,
-                                getString(R.string.sample_recipe_2_name),
-                                now,
-                                now,
-                                getString(R.string.sample_recipe_2_desc),
-                                null,
-                                "[]",
-                                "",
-                                defaultCategoryId,
-                                0,
-                                0
-                        ),
-                        new RecipeEntity(
-                                null,
-                                getString(R.string.sample_recipe_3_name),
-                                now,
-                                now,
-                                getString(R.string.sample_recipe_3_desc),
-                                null,
-                                "[]",
-                                "",
-                                defaultCategoryId,
-                                0,
-                                0
-                        )
-                );
-                database.recipeDao().insertAll(seeds);
+        // 确保数据库文件创建，并在首次运行时填充示例数据（仅当表为空）；界面首次读取会等待它完成
+        executors.write().execute(() -> {
+            try {
+                seedIfEmpty();
+            } finally {
+                seeded.countDown();
             }
             
-            // 执行图片清理操作
-            cleanupUnusedImages();
+            // 图片清理在写线程单独排队：与保存菜谱串行，读到的引用与删除之间不会插入新的保存；
+            // 也不占读线程，界面查询不受影响
+            executors.write().execute(() -> {
+                cleanupUnusedImages();
+                // 旧图片的缩略图在低优先级线程补齐，补齐前列表显示原图
+                executors.bulk().execute(() -> ImageThumbnails.backfill(this));
+            });
 
             // 数据库初始化完成后，检查并执行自动本地备份
             triggerAutoBackupIfNeeded();
         });
     }
 
+    /**
+     * 首次运行时创建默认分类、用户资料与示例菜谱（仅当表为空），在写线程执行
+     */
+    private void seedIfEmpty() {
+        database.getOpenHelper().getWritableDatabase();
+        CategoryDao categoryDao = database.categoryDao();
+        Long defaultCategoryId = ensureDefaultCategories(categoryDao);
+        ensureUserProfile(database);
+
+        long count = database.recipeStatsDao().getTotalCount();
+        if (count == 0) {
+            long now = System.currentTimeMillis();
+            List<RecipeEntity> seeds = Arrays.asList(
+                    new RecipeEntity(
+                            null,
+                            getString(R.string.sample_recipe_1_name),
+                            now,
+                            now,
+                            getString(R.string.sample_recipe_1_desc),
+                            null,
+                            null,
+                            "",
+                            defaultCategoryId,
+                            0,
+                            0
+                    ),
+                    new RecipeEntity(
+                            null,
+                            getString(R.string.sample_recipe_2_name),
+                            now,
+                            now,
+                            getString(R.string.sample_recipe_2_desc),
+                            null,
+                            null,
+                            "",
+                            defaultCategoryId,
+                            0,
+                            0
+                    ),
+                    new RecipeEntity(
+                            null,
+                            getString(R.string.sample_recipe_3_name),
+                            now,
+                            now,
+                            getString(R.string.sample_recipe_3_desc),
+                            null,
+                            null,
+                            "",
+                            defaultCategoryId,
+                            0,
+                            0
+                    )
+            );
+            database.saveRecipes(seeds);
+        }
+    }
+
+    /**
+     * 等待首次运行的初始化数据写入完成；读分类、菜谱前调用，保证第一次加载能看到默认分类。
+     * 会阻塞，只能在后台线程调用
+     */
+    public void awaitSeeded() {
+        try {
+            seeded.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     @Nullable
     private Long ensureDefaultCategories(@NonNull CategoryDao categoryDao) {
         try {
@@ -152,54 +190,13 @@ public class App extends Application {
     }
     
     /**
-     * 清理App私有目录中不在数据库中的图片
+     * 清理App私有目录中不在数据库中的图片，在写线程执行
      */
     private void cleanupUnusedImages() {
         try {
-            // 1. 获取数据库中所有图片路径
-            Set<String> databaseImagePaths = new HashSet<>();
-            List<RecipeEntity> recipes = database.recipeDao().getAll();
-            Gson gson = new Gson();
-            Type stepListType = new TypeToken<List<StepItem>>() {}.getType();
-            
-            for (RecipeEntity recipe : recipes) {
-                // 添加封面图片路径
-                if (recipe.getCoverImagePath() != null && !recipe.getCoverImagePath().isEmpty()) {
-                    databaseImagePaths.add(recipe.getCoverImagePath());
-                }
-                
-                // 添加步骤图片路径
-                String stepsJson = recipe.getStepsJson();
-                if (stepsJson != null && !stepsJson.isEmpty()) {
-                    try {
-                        List<StepItem> steps = gson.fromJson(stepsJson, stepListType);
-                        if (steps != null) {
-                            for (StepItem step : steps) {
-                                List<String> stepImagePaths = step.getImagePaths();
-                                if (stepImagePaths != null) {
-                                    databaseImagePaths.addAll(stepImagePaths);
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                }
+            // 1. 从图片引用表读取所有被引用的路径（封面、食材、步骤），无需解析菜谱
+            Set<String> databaseImagePaths = new HashSet<>(database.imageRefDao().getReferencedPaths());
 
-                // 添加食材图片路径
-                String ingredientJson = recipe.getIngredientJson();
-                if (ingredientJson != null && !ingredientJson.isEmpty()) {
-                    try {
-                        StepItem ingredient = gson.fromJson(ingredientJson, StepItem.class);
-                        if (ingredient != null && ingredient.getImagePaths() != null) {
-                            databaseImagePaths.addAll(ingredient.getImagePaths());
-                        }
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                }
-            }
-            
             // 2. 扫描App私有目录中的图片
             File imagesDir = new File(getFilesDir(), "images");
             if (!imagesDir.exists() || !imagesDir.isDirectory()) {
@@ -211,10 +208,11 @@ public class App extends Application {
                 return; // 目录为空，无需清理
             }
             
-            // 3. 比对并删除不在数据库中的图片
+            // 3. 比对并删除不在数据库中的图片，跳过最近写入、可能属于未保存菜谱的图片
+            long graceStart = System.currentTimeMillis() - UNUSED_IMAGE_GRACE_MS;
             int deletedCount = 0;
             for (File imageFile : imageFiles) {
-                if (imageFile.isFile()) {
+                if (imageFile.isFile() && imageFile.lastModified() < graceStart) {
                     String imagePath = imageFile.getAbsolutePath();
                     if (!databaseImagePaths.contains(imagePath)) {
                         if (imageFile.delete()) {
@@ -227,6 +225,7 @@ public class App extends Application {
             if (deletedCount > 0) {
                 // 可以选择在这里添加日志，记录删除的图片数量
             }
+            ImageThumbnails.removeOrphans(this);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -254,6 +253,11 @@ public class App extends Application {
 
     public synchronized void reloadDatabase() {
         database = AppDatabase.resetInstance(this);
+        // 恢复、同步会整体替换图片，同名的旧缩略图不再可用
+        executors.bulk().execute(() -> {
+            ImageThumbnails.clear(this);
+            ImageThumbnails.backfill(this);
+        });
     }
 
     public void requestAutoWebDavUploadIfConfigured() {
@@ -288,8 +292,34 @@ public class App extends Application {
         return autoSyncRunning.get();
     }
 
-    public ExecutorService ioExecutor() {
-        return ioExecutor;
+    @NonNull
+    public AppExecutors executors() {
+        return executors;
+    }
+
+    @NonNull
+    public RecipeFlagWriter recipeFlagWriter() {
+        return recipeFlagWriter;
+    }
+
+    /**
+     * Coil 首次加载图片时调用，所有 AsyncImage 共用这一个 ImageLoader
+     */
+    @NonNull
+    @Override
+    public ImageLoader newImageLoader() {
+        return AppImageLoader.create(this, imageCacheStats);
+    }
+
+    /**
+     * 进入后台时在可调试版本中输出图片缓存统计；缓存本身由 Coil 按内存等级裁剪
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level == TRIM_MEMORY_UI_HIDDEN && (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            Log.d("ImageCache", imageCacheStats + " hitRate=" + imageCacheStats.hitRate());
+        }
     }
 
     // ==================== 自动本地备份 ====================
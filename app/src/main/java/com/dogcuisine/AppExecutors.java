@@ -0,0 +1,169 @@
+package com.dogcuisine;
+
+import android.os.Process;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 后台任务分道执行，避免长任务阻塞界面加载：
+ * <ul>
+ *     <li>read：并行读库，WAL 模式下多个读连接可同时查询；排队任务按 {@link TaskPriority} 调度</li>
+ *     <li>write：单线程串行写库，写入顺序与提交顺序一致</li>
+ *     <li>bulk：备份、恢复、WebDAV 同步、导出图片等耗时任务，单线程且低优先级</li>
+ *     <li>image：导入图片时的解码与压缩，按 CPU 核数与可用内存限制并发</li>
+ * </ul>
+ */
+public final class AppExecutors {
+
+    private static final int READ_POOL_SIZE = 3;
+    private static final int MAX_IMAGE_THREADS = 4;
+    // 单张图片导入的内存峰值估算：解码器的采样缓冲、目标尺寸位图与压缩缓冲
+    private static final long IMAGE_TASK_BYTES = 16L * 1024 * 1024;
+
+    private final ThreadPoolExecutor readExecutor = new PriorityExecutor(READ_POOL_SIZE,
+            new NamedThreadFactory("db-read", Process.THREAD_PRIORITY_DEFAULT));
+    private final ExecutorService writeExecutor =
+            Executors.newSingleThreadExecutor(new NamedThreadFactory("db-write", Process.THREAD_PRIORITY_DEFAULT));
+    private final ExecutorService bulkExecutor =
+            Executors.newSingleThreadExecutor(new NamedThreadFactory("bulk", Process.THREAD_PRIORITY_BACKGROUND));
+    private final ExecutorService imageExecutor =
+            Executors.newFixedThreadPool(imageThreadCount(), new NamedThreadFactory("image", Process.THREAD_PRIORITY_BACKGROUND));
+
+    /**
+     * 读库线程池；直接提交的任务按 {@link TaskPriority#INTERACTIVE} 处理
+     */
+    @NonNull
+    public ExecutorService read() {
+        return readExecutor;
+    }
+
+    @NonNull
+    public Executor read(@NonNull TaskPriority priority) {
+        return task -> readExecutor.execute(new PrioritizedTask(task, priority, null));
+    }
+
+    /**
+     * 创建绑定界面生命周期的任务入口，需在主线程调用
+     */
+    @NonNull
+    public TaskScope scope(@NonNull LifecycleOwner owner) {
+        return new TaskScope(this, owner);
+    }
+
+    @NonNull
+    public ExecutorService write() {
+        return writeExecutor;
+    }
+
+    @NonNull
+    public ExecutorService bulk() {
+        return bulkExecutor;
+    }
+
+    @NonNull
+    public ExecutorService image() {
+        return imageExecutor;
+    }
+
+    void purgeReads() {
+        readExecutor.purge();
+    }
+
+    // 不超过 CPU 核数，且所有线程同时处理图片时的峰值不超过堆上限的四分之一
+    private static int imageThreadCount() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int byMemory = (int) (Runtime.getRuntime().maxMemory() / 4 / IMAGE_TASK_BYTES);
+        return Math.max(1, Math.min(MAX_IMAGE_THREADS, Math.min(cores, byMemory)));
+    }
+
+    /**
+     * 带优先级的任务，同优先级按提交顺序执行
+     */
+    static final class PrioritizedTask extends FutureTask<Void> implements Comparable<PrioritizedTask> {
+        private static final AtomicLong SEQUENCE = new AtomicLong();
+
+        private final TaskPriority priority;
+        private final long sequence = SEQUENCE.getAndIncrement();
+        @Nullable
+        private final Consumer<PrioritizedTask> onDone;
+
+        PrioritizedTask(@NonNull Runnable task, @NonNull TaskPriority priority, @Nullable Consumer<PrioritizedTask> onDone) {
+            super(task, null);
+            this.priority = priority;
+            this.onDone = onDone;
+        }
+
+        @Override
+        protected void done() {
+            if (onDone != null) {
+                onDone.accept(this);
+            }
+        }
+
+        @Override
+        public int compareTo(@NonNull PrioritizedTask other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static final class PriorityExecutor extends ThreadPoolExecutor {
+
+        PriorityExecutor(int threads, @NonNull ThreadFactory threadFactory) {
+            super(threads, threads, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), threadFactory);
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            super.execute(command instanceof PrioritizedTask
+                    ? command
+                    : new PrioritizedTask(command, TaskPriority.INTERACTIVE, null));
+        }
+
+        // 任务异常不会抛出到线程，与原先单线程执行器一样打印出来
+        @Override
+        protected void afterExecute(Runnable r, Throwable t) {
+            super.afterExecute(r, t);
+            if (r instanceof PrioritizedTask && !((PrioritizedTask) r).isCancelled()) {
+                try {
+                    ((PrioritizedTask) r).get();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final int priority;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(@NonNull String prefix, int priority) {
+            this.prefix = prefix;
+            this.priority = priority;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            return new Thread(() -> {
+                Process.setThreadPriority(priority);
+                runnable.run();
+            }, prefix + "-" + count.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.dogcuisine;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.ImageDecoder;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 列表用的小尺寸缩略图，与 files/images 下的原图同名，按短边像素存放在 files/thumbs/&lt;尺寸&gt;/ 下。
+ * <p>
+ * 导入时由已解码的位图直接生成；旧图片以及恢复、同步得到的图片在后台补齐。
+ * 缩略图不参与备份与同步，缺失时调用方退回原图
+ */
+public final class ImageThumbnails {
+
+    // 短边像素，从小到大；384 覆盖 96dp 以内的列表图在 xxxhdpi 下的尺寸
+    private static final int[] SIZES = {128, 256, 384};
+    // 没有足够大的缩略图时，短边不小于显示尺寸这个比例的也可使用，轻微放大远比解码原图便宜
+    private static final float CLOSE_ENOUGH = 0.75f;
+    private static final int JPEG_QUALITY = 80;
+    private static final String THUMBS_DIR = "thumbs";
+
+    private ImageThumbnails() {
+    }
+
+    /**
+     * 按 {@link #candidateSizes(int)} 的顺序取第一个已生成的缩略图，都没有时返回原图。
+     * 会访问文件系统，不要在主线程调用
+     */
+    @NonNull
+    public static File resolve(@NonNull Context context, @NonNull File image, int minEdgePx) {
+        for (int size : candidateSizes(minEdgePx)) {
+            File thumb = variantFile(context, image.getName(), size);
+            if (thumb.exists()) {
+                return thumb;
+            }
+        }
+        return image;
+    }
+
+    /**
+     * 显示短边为 minEdgePx 时可用的缩略图尺寸，按优先顺序排列：先是不小于显示尺寸的，从小到大；
+     * 再是略小但足够接近的，从大到小
+     */
+    @NonNull
+    static List<Integer> candidateSizes(int minEdgePx) {
+        List<Integer> sizes = new ArrayList<>(SIZES.length);
+        for (int size : SIZES) {
+            if (size >= minEdgePx) {
+                sizes.add(size);
+            }
+        }
+        for (int i = SIZES.length - 1; i >= 0; i--) {
+            if (SIZES[i] < minEdgePx && SIZES[i] >= minEdgePx * CLOSE_ENOUGH) {
+                sizes.add(SIZES[i]);
+            }
+        }
+        return sizes;
+    }
+
+    /**
+     * 由已解码的原图位图生成全部尺寸，从大到小逐级缩放；不回收传入的位图
+     */
+    public static void writeVariants(@NonNull Context context, @NonNull File image, @NonNull Bitmap bitmap)
+            throws IOException {
+        Bitmap source = bitmap;
+        try {
+            for (int i = SIZES.length - 1; i >= 0; i--) {
+                Bitmap scaled = scaleToShortEdge(source, SIZES[i]);
+                if (source != bitmap && scaled != source) {
+                    source.recycle();
+                }
+                source = scaled;
+                writeJpeg(source, variantFile(context, image.getName(), SIZES[i]));
+            }
+        } finally {
+            if (source != bitmap) {
+                source.recycle();
+            }
+        }
+    }
+
+    /**
+     * 补齐 files/images 下缺少缩略图的原图，单张失败不影响其余图片
+     */
+    public static void backfill(@NonNull Context context) {
+        File[] images = new File(context.getFilesDir(), "images").listFiles();
+        if (images == null) {
+            return;
+        }
+        for (File image : images) {
+            if (!image.isFile() || hasAllVariants(context, image)) {
+                continue;
+            }
+            try {
+                Bitmap bitmap = decode(image, SIZES[SIZES.length - 1]);
+                try {
+                    writeVariants(context, image, bitmap);
+                } finally {
+                    bitmap.recycle();
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * 删除原图已不存在的缩略图
+     */
+    public static void removeOrphans(@NonNull Context context) {
+        Set<String> names = new HashSet<>();
+        String[] images = new File(context.getFilesDir(), "images").list();
+        if (images != null) {
+            for (String name : images) {
+                names.add(name);
+            }
+        }
+        for (int size : SIZES) {
+            File[] thumbs = sizeDir(context, size).listFiles();
+            if (thumbs == null) {
+                continue;
+            }
+            for (File thumb : thumbs) {
+                // 正在写入的临时文件不动
+                if (!names.contains(thumb.getName()) && !thumb.getName().endsWith(".tmp")) {
+                    thumb.delete();
+                }
+            }
+        }
+    }
+
+    public static void delete(@NonNull Context context, @Nullable String imagePath) {
+        if (imagePath == null || imagePath.isEmpty()) {
+            return;
+        }
+        String name = new File(imagePath).getName();
+        for (int size : SIZES) {
+            variantFile(context, name, size).delete();
+        }
+    }
+
+    /**
+     * 原图整体被替换（恢复备份、同步下载）后清空，同名文件的旧缩略图不能再用
+     */
+    public static void clear(@NonNull Context context) {
+        for (int size : SIZES) {
+            File[] thumbs = sizeDir(context, size).listFiles();
+            if (thumbs == null) {
+                continue;
+            }
+            for (File thumb : thumbs) {
+                thumb.delete();
+            }
+        }
+    }
+
+    private static boolean hasAllVariants(@NonNull Context context, @NonNull File image) {
+        for (int size : SIZES) {
+            if (!variantFile(context, image.getName(), size).exists()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NonNull
+    private static Bitmap decode(@NonNull File image, int shortEdge) throws IOException {
+        return ImageDecoder.decodeBitmap(ImageDecoder.createSource(image), (decoder, info, src) -> {
+            int width = info.getSize().getWidth();
+            int height = info.getSize().getHeight();
+            int edge = Math.min(width, height);
+            if (edge > shortEdge) {
+                float scale = shortEdge / (float) edge;
+                decoder.setTargetSize(Math.max(1, Math.round(width * scale)), Math.max(1, Math.round(height * scale)));
+            }
+            decoder.setAllocator(ImageDecoder.ALLOCATOR_SOFTWARE);
+            decoder.setMemorySizePolicy(ImageDecoder.MEMORY_POLICY_LOW_RAM);
+        });
+    }
+
+    @NonNull
+    private static Bitmap scaleToShortEdge(@NonNull Bitmap bitmap, int shortEdge) {
+        int edge = Math.min(bitmap.getWidth(), bitmap.getHeight());
+        if (edge <= shortEdge) {
+            return bitmap;
+        }
+        float scale = shortEdge / (float) edge;
+        return Bitmap.createScaledBitmap(bitmap,
+                Math.max(1, Math.round(bitmap.getWidth() * scale)),
+                Math.max(1, Math.round(bitmap.getHeight() * scale)),
+                true);
+    }
+
+    /**
+     * 先写临时文件再改名，列表读到的缩略图总是完整的
+     */
+    private static void writeJpeg(@NonNull Bitmap bitmap, @NonNull File target) throws IOException {
+        File dir = target.getParentFile();
+        if (dir != null && !dir.exists()) {
+            dir.mkdirs();
+        }
+        File temp = File.createTempFile(target.getName(), ".tmp", dir);
+        try {
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(temp))) {
+                bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+            }
+            if (!temp.renameTo(target)) {
+                throw new IOException("rename thumbnail failed: " + target);
+            }
+        } finally {
+            temp.delete();
+        }
+    }
+
+    @NonNull
+    private static File variantFile(@NonNull Context context, @NonNull String name, int size) {
+        return new File(sizeDir(context, size), name);
+    }
+
+    @NonNull
+    private static File sizeDir(@NonNull Context context, int size) {
+        return new File(new File(context.getFilesDir(), THUMBS_DIR), String.valueOf(size));
+    }
+}
@@ -0,0 +1,175 @@
+package com.dogcuisine;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.dogcuisine.data.AppDatabase;
+import com.dogcuisine.data.RecipeFlags;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * 收藏 / 评分的延迟合并写入：短时间内的多次修改按菜谱 id 合并，延迟后或离开界面时在一个事务内写入。
+ * <p>
+ * 写入完成前，界面通过 {@link #getPendingFavorite} / {@link #getPendingRating} 读取待写入的值，
+ * 避免重新加载时闪回旧值。同一时间只有一批在写入；写入失败的条目回到待写入队列，稍后重试
+ */
+public final class RecipeFlagWriter {
+
+    private static final long FLUSH_DELAY_MS = 400L;
+    private static final long RETRY_DELAY_MS = 5_000L;
+
+    /**
+     * 一批修改的实际写入，在写线程调用
+     */
+    interface Store {
+        void updateFlags(@NonNull Map<Long, RecipeFlags> batch);
+    }
+
+    interface Scheduler {
+        void schedule(@NonNull Runnable task, long delayMs);
+
+        void cancel(@NonNull Runnable task);
+    }
+
+    private final Store store;
+    private final Executor writeExecutor;
+    private final Scheduler scheduler;
+    private final Runnable flushTask = this::flush;
+    // 以下由 lock 保护。pending 为尚未交给写线程的修改，inFlight 为正在写入的一批
+    private final Object lock = new Object();
+    private final Map<Long, RecipeFlags> pending = new LinkedHashMap<>();
+    private final Map<Long, RecipeFlags> inFlight = new LinkedHashMap<>();
+    private boolean writing;
+    // 写入期间收到的 flush 请求，本批结束后立即再提交一次
+    private boolean flushRequested;
+
+    RecipeFlagWriter(@NonNull Supplier<AppDatabase> database, @NonNull Executor writeExecutor) {
+        this(batch -> database.get().updateFlags(batch), writeExecutor, new MainThreadScheduler());
+    }
+
+    RecipeFlagWriter(@NonNull Store store, @NonNull Executor writeExecutor, @NonNull Scheduler scheduler) {
+        this.store = store;
+        this.writeExecutor = writeExecutor;
+        this.scheduler = scheduler;
+    }
+
+    public void setFavorite(long recipeId, boolean favorite) {
+        synchronized (lock) {
+            pending.put(recipeId, current(recipeId).withFavorite(favorite ? 1 : 0));
+        }
+        scheduleFlush(FLUSH_DELAY_MS);
+    }
+
+    public void setRating(long recipeId, int rating) {
+        synchronized (lock) {
+            pending.put(recipeId, current(recipeId).withRating(rating));
+        }
+        scheduleFlush(FLUSH_DELAY_MS);
+    }
+
+    @Nullable
+    public Integer getPendingFavorite(long recipeId) {
+        synchronized (lock) {
+            RecipeFlags flags = latest(recipeId);
+            return flags != null ? flags.getFavorite() : null;
+        }
+    }
+
+    @Nullable
+    public Integer getPendingRating(long recipeId) {
+        synchronized (lock) {
+            RecipeFlags flags = latest(recipeId);
+            return flags != null ? flags.getRating() : null;
+        }
+    }
+
+    /**
+     * 立即提交所有待写入的修改，离开界面时调用。已有一批在写入时，等它结束后再提交
+     */
+    public void flush() {
+        scheduler.cancel(flushTask);
+        Map<Long, RecipeFlags> batch;
+        synchronized (lock) {
+            if (writing) {
+                flushRequested = true;
+                return;
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+            inFlight.putAll(batch);
+            writing = true;
+        }
+        writeExecutor.execute(() -> write(batch));
+    }
+
+    private void write(@NonNull Map<Long, RecipeFlags> batch) {
+        boolean written;
+        try {
+            store.updateFlags(batch);
+            written = true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            written = false;
+        }
+        boolean flushNow;
+        synchronized (lock) {
+            inFlight.clear();
+            writing = false;
+            if (!written) {
+                // 写入期间又被修改的条目以新值为准
+                for (Map.Entry<Long, RecipeFlags> entry : batch.entrySet()) {
+                    pending.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+            flushNow = flushRequested && written;
+            flushRequested = false;
+        }
+        if (flushNow) {
+            flush();
+        } else if (!written) {
+            scheduleFlush(RETRY_DELAY_MS);
+        }
+    }
+
+    private void scheduleFlush(long delayMs) {
+        scheduler.cancel(flushTask);
+        scheduler.schedule(flushTask, delayMs);
+    }
+
+    // 新的修改在最近一次的值上叠加，写入中的值也算
+    @NonNull
+    private RecipeFlags current(long recipeId) {
+        RecipeFlags flags = latest(recipeId);
+        return flags != null ? flags : new RecipeFlags(null, null);
+    }
+
+    @Nullable
+    private RecipeFlags latest(long recipeId) {
+        RecipeFlags flags = pending.get(recipeId);
+        return flags != null ? flags : inFlight.get(recipeId);
+    }
+
+    private static final class MainThreadScheduler implements Scheduler {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void schedule(@NonNull Runnable task, long delayMs) {
+            handler.postDelayed(task, delayMs);
+        }
+
+        @Override
+        public void cancel(@NonNull Runnable task) {
+            handler.removeCallbacks(task);
+        }
+    }
+}
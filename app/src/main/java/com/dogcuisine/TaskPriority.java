@@ -0,0 +1,11 @@
+package com.dogcuisine;
+
+/**
+ * 读库任务优先级，按声明顺序从高到低调度
+ */
+public enum TaskPriority {
+    // 用户正在等待的查询：列表、详情、搜索
+    INTERACTIVE,
+    // 预取：列表翻页等用户尚未看到的数据
+    PREFETCH
+}
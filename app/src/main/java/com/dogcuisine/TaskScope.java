@@ -0,0 +1,72 @@
+package com.dogcuisine;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 绑定界面生命周期的任务入口：页面销毁时取消其尚未执行的读任务。
+ * <p>
+ * 写任务与耗时任务不随页面取消，保存、删除、恢复等操作在页面关闭后仍需完成。
+ * 需在主线程创建。
+ */
+public final class TaskScope implements LifecycleEventObserver {
+
+    private final AppExecutors executors;
+    private final Set<AppExecutors.PrioritizedTask> pending = ConcurrentHashMap.newKeySet();
+    private volatile boolean destroyed;
+
+    TaskScope(@NonNull AppExecutors executors, @NonNull LifecycleOwner owner) {
+        this.executors = executors;
+        owner.getLifecycle().addObserver(this);
+    }
+
+    /**
+     * 按优先级排队的读库执行器
+     */
+    @NonNull
+    public Executor read(@NonNull TaskPriority priority) {
+        return task -> {
+            if (destroyed) {
+                return;
+            }
+            AppExecutors.PrioritizedTask wrapped = new AppExecutors.PrioritizedTask(task, priority, pending::remove);
+            pending.add(wrapped);
+            executors.read().execute(wrapped);
+        };
+    }
+
+    @NonNull
+    public ExecutorService write() {
+        return executors.write();
+    }
+
+    @NonNull
+    public ExecutorService bulk() {
+        return executors.bulk();
+    }
+
+    public boolean isActive() {
+        return !destroyed;
+    }
+
+    @Override
+    public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+        if (event != Lifecycle.Event.ON_DESTROY) {
+            return;
+        }
+        destroyed = true;
+        source.getLifecycle().removeObserver(this);
+        for (AppExecutors.PrioritizedTask task : pending) {
+            task.cancel(false);
+        }
+        pending.clear();
+        executors.purgeReads();
+    }
+}
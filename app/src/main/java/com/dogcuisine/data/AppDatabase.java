@@ -6,20 +6,26 @@ import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.TypeConverters;
 import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
-@Database(entities = {RecipeEntity.class, CategoryEntity.class, UserProfileEntity.class}, version = 8, exportSchema = false)
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@Database(entities = {RecipeEntity.class, CategoryEntity.class, UserProfileEntity.class, RecipeFtsEntity.class, RecipePinyinEntity.class, RecipeStepEntity.class, RecipeImageEntity.class, ImageRefEntity.class, RecipeStatEntity.class, RecipeIngredientTermEntity.class}, version = 18, exportSchema = false)
+@TypeConverters({StepItemConverters.class})
 public abstract class AppDatabase extends RoomDatabase {
 
     private static volatile AppDatabase INSTANCE;
-    private static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
         @Override
         public void migrate(@NonNull SupportSQLiteDatabase database) {
             database.execSQL("ALTER TABLE recipes ADD COLUMN ingredient_json TEXT NOT NULL DEFAULT ''");
         }
     };
-    private static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
         @Override
         public void migrate(@NonNull SupportSQLiteDatabase database) {
             database.execSQL("CREATE TABLE IF NOT EXISTS user_profile (" +
@@ -27,28 +33,261 @@ public abstract class AppDatabase extends RoomDatabase {
                     "current_level TEXT)");
         }
     };
-    private static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
         @Override
         public void migrate(@NonNull SupportSQLiteDatabase database) {
             database.execSQL("UPDATE user_profile SET current_level = NULL");
         }
     };
-    private static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
         @Override
         public void migrate(@NonNull SupportSQLiteDatabase database) {
             database.execSQL("ALTER TABLE recipes ADD COLUMN is_favorite INTEGER NOT NULL DEFAULT 0");
         }
     };
-    private static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
         @Override
         public void migrate(@NonNull SupportSQLiteDatabase database) {
             database.execSQL("ALTER TABLE recipes ADD COLUMN rating INTEGER NOT NULL DEFAULT 0");
         }
     };
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_recipes_category_id_updated_at_name_cover_image_path " +
+                    "ON recipes (category_id, updated_at, name, cover_image_path)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_recipes_is_favorite_updated_at_name_cover_image_path " +
+                    "ON recipes (is_favorite, updated_at, name, cover_image_path)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_recipes_rating_updated_at_name_cover_image_path " +
+                    "ON recipes (rating, updated_at, name, cover_image_path)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_recipes_updated_at ON recipes (updated_at)");
+        }
+    };
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `recipe_fts` USING FTS4(" +
+                    "`name` TEXT NOT NULL, `ingredient` TEXT NOT NULL, `steps` TEXT NOT NULL, tokenize=unicode61)");
+            RecipeSearchIndex.rebuild(database);
+        }
+    };
+    static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            // 检索索引改为中日韩二元组切分，按新规则重建
+            RecipeSearchIndex.rebuild(database);
+        }
+    };
+    static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `recipe_pinyin` (" +
+                    "`recipe_id` INTEGER NOT NULL, `position` INTEGER NOT NULL, " +
+                    "`full_pinyin` TEXT NOT NULL, `initials` TEXT NOT NULL, " +
+                    "PRIMARY KEY(`recipe_id`, `position`))");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_recipe_pinyin_full_pinyin` ON `recipe_pinyin` (`full_pinyin`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_recipe_pinyin_initials` ON `recipe_pinyin` (`initials`)");
+            PinyinIndex.rebuild(database);
+        }
+    };
+    static final Migration MIGRATION_12_13 = new Migration(12, 13) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            // 列表索引加入 id，使 (updated_at, id) 游标分页无需额外排序
+            database.execSQL("DROP INDEX IF EXISTS index_recipes_category_id_updated_at_name_cover_image_path");
+            database.execSQL("DROP INDEX IF EXISTS index_recipes_is_favorite_updated_at_name_cover_image_path");
+            database.execSQL("DROP INDEX IF EXISTS index_recipes_rating_updated_at_name_cover_image_path");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_recipes_category_id_updated_at_id_name_cover_image_path " +
+                    "ON recipes (category_id, updated_at, id, name, cover_image_path)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_recipes_is_favorite_updated_at_id_name_cover_image_path " +
+                    "ON recipes (is_favorite, updated_at, id, name, cover_image_path)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_recipes_rating_updated_at_id_name_cover_image_path " +
+                    "ON recipes (rating, updated_at, id, name, cover_image_path)");
+        }
+    };
+    static final Migration MIGRATION_13_14 = new Migration(13, 14) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            // 步骤与图片拆到独立表，拆分后清空 steps_json
+            database.execSQL("CREATE TABLE IF NOT EXISTS `recipe_steps` (" +
+                    "`recipe_id` INTEGER NOT NULL, " +
+                    "`position` INTEGER NOT NULL, " +
+                    "`step_text` TEXT, " +
+                    "PRIMARY KEY(`recipe_id`, `position`))");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `recipe_images` (" +
+                    "`recipe_id` INTEGER NOT NULL, " +
+                    "`step_position` INTEGER NOT NULL, " +
+                    "`position` INTEGER NOT NULL, " +
+                    "`path` TEXT NOT NULL, " +
+                    "PRIMARY KEY(`recipe_id`, `step_position`, `position`))");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_recipe_images_path` ON `recipe_images` (`path`)");
+            RecipeSteps.explodeLegacyJson(database);
+            database.execSQL("UPDATE recipes SET steps_json = NULL");
+        }
+    };
+    static final Migration MIGRATION_14_15 = new Migration(14, 15) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `image_refs` (" +
+                    "`path` TEXT NOT NULL, " +
+                    "`recipe_id` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`path`, `recipe_id`))");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_image_refs_recipe_id` ON `image_refs` (`recipe_id`)");
+            ImageRefs.rebuild(database);
+        }
+    };
+    static final Migration MIGRATION_15_16 = new Migration(15, 16) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `recipe_stats` (" +
+                    "`scope` TEXT NOT NULL, " +
+                    "`scope_id` INTEGER NOT NULL, " +
+                    "`count` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`scope`, `scope_id`))");
+            RecipeStats.rebuild(database);
+            RecipeStats.createTriggers(database);
+        }
+    };
+    static final Migration MIGRATION_16_17 = new Migration(16, 17) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            // 旧行保留 ingredient_json，读取时回退解析，保存时转为二进制
+            database.execSQL("ALTER TABLE recipes ADD COLUMN ingredient_blob BLOB");
+        }
+    };
+    static final Migration MIGRATION_17_18 = new Migration(17, 18) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `recipe_ingredient_terms` (" +
+                    "`term` TEXT NOT NULL, " +
+                    "`recipe_id` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`term`, `recipe_id`))");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_recipe_ingredient_terms_recipe_id` ON `recipe_ingredient_terms` (`recipe_id`)");
+            IngredientTerms.rebuild(database);
+        }
+    };
 
     public abstract RecipeDao recipeDao();
     public abstract CategoryDao categoryDao();
     public abstract UserProfileDao userProfileDao();
+    public abstract RecipeSearchDao recipeSearchDao();
+    public abstract RecipeStepDao recipeStepDao();
+    public abstract ImageRefDao imageRefDao();
+    public abstract RecipeStatsDao recipeStatsDao();
+    public abstract IngredientTermDao ingredientTermDao();
+
+    private volatile RecipeRepository recipeRepository;
+
+    /**
+     * 解码菜谱的缓存仓库，随数据库实例创建；同步 / 恢复重建实例后缓存随之丢弃
+     */
+    @NonNull
+    public RecipeRepository recipeRepository() {
+        if (recipeRepository == null) {
+            synchronized (this) {
+                if (recipeRepository == null) {
+                    recipeRepository = new RecipeRepository(this);
+                }
+            }
+        }
+        return recipeRepository;
+    }
+
+    /**
+     * 保存菜谱及其步骤，并在同一事务内同步检索索引、食材索引与图片引用，返回菜谱 id
+     */
+    public long saveRecipe(@NonNull RecipeEntity recipe, @NonNull List<StepItem> steps) {
+        long savedId = runInTransaction(() -> {
+            // 已存在的菜谱用 UPDATE 保存：REPLACE 删除旧行时不触发 recipe_stats 的 DELETE 触发器
+            long id;
+            if (recipe.getId() != null && recipeDao().update(recipe) > 0) {
+                id = recipe.getId();
+            } else {
+                id = recipeDao().insert(recipe);
+            }
+            recipeStepDao().deleteSteps(id);
+            recipeStepDao().deleteImages(id);
+            recipeStepDao().insertSteps(RecipeSteps.toStepRows(id, steps));
+            recipeStepDao().insertImages(RecipeSteps.toImageRows(id, steps));
+            recipeSearchDao().deleteByRecipeId(id);
+            recipeSearchDao().insert(RecipeSearchIndex.buildRow(id, recipe, steps));
+            recipeSearchDao().deletePinyinByRecipeId(id);
+            recipeSearchDao().insertPinyin(PinyinIndex.buildRows(id, recipe.getName()));
+            imageRefDao().deleteByRecipeId(id);
+            imageRefDao().insertAll(ImageRefs.buildRows(id, recipe, steps));
+            ingredientTermDao().deleteByRecipeId(id);
+            ingredientTermDao().insertAll(IngredientTerms.buildRows(id, recipe));
+            return id;
+        });
+        invalidateCachedRecipe(savedId);
+        return savedId;
+    }
+
+    public void saveRecipes(@NonNull List<RecipeEntity> recipes) {
+        runInTransaction(() -> {
+            for (RecipeEntity recipe : recipes) {
+                saveRecipe(recipe, Collections.emptyList());
+            }
+        });
+        // 外层事务提交后再整体失效，内层的单条失效早于提交
+        RecipeRepository repository = recipeRepository;
+        if (repository != null) {
+            repository.invalidateAll();
+        }
+    }
+
+    /**
+     * 在一个事务内写入多个菜谱的收藏 / 评分，值未变化的行不产生写入
+     */
+    public void updateFlags(@NonNull Map<Long, RecipeFlags> updates) {
+        runInTransaction(() -> {
+            for (Map.Entry<Long, RecipeFlags> entry : updates.entrySet()) {
+                RecipeFlags flags = entry.getValue();
+                if (flags.getFavorite() != null) {
+                    recipeDao().updateFavorite(entry.getKey(), flags.getFavorite());
+                }
+                if (flags.getRating() != null) {
+                    recipeDao().updateRating(entry.getKey(), flags.getRating());
+                }
+            }
+        });
+        for (Long recipeId : updates.keySet()) {
+            invalidateCachedRecipe(recipeId);
+        }
+    }
+
+    @NonNull
+    public List<StepItem> loadSteps(long recipeId) {
+        return RecipeSteps.fromRows(recipeStepDao().getStepRows(recipeId));
+    }
+
+    /**
+     * 删除菜谱及其附属数据，返回不再被任何菜谱引用的图片路径，由调用方删除文件
+     */
+    @NonNull
+    public List<String> deleteRecipe(long id) {
+        List<String> orphans = runInTransaction(() -> {
+            List<String> orphanPaths = imageRefDao().getExclusivePaths(id);
+            imageRefDao().deleteByRecipeId(id);
+            recipeSearchDao().deleteByRecipeId(id);
+            recipeSearchDao().deletePinyinByRecipeId(id);
+            ingredientTermDao().deleteByRecipeId(id);
+            recipeStepDao().deleteSteps(id);
+            recipeStepDao().deleteImages(id);
+            recipeDao().deleteById(id);
+            return orphanPaths;
+        });
+        invalidateCachedRecipe(id);
+        return orphans;
+    }
+
+    // 在事务提交后调用，避免并发读取在提交前把旧数据回填进缓存
+    private void invalidateCachedRecipe(long recipeId) {
+        RecipeRepository repository = recipeRepository;
+        if (repository != null) {
+            repository.invalidate(recipeId);
+        }
+    }
 
     public static AppDatabase getInstance(@NonNull Context context) {
         if (INSTANCE == null) {
@@ -75,7 +314,13 @@ public abstract class AppDatabase extends RoomDatabase {
     private static AppDatabase create(@NonNull Context context) {
         return Room.databaseBuilder(context.getApplicationContext(),
                         AppDatabase.class, "dogcuisine.db")
-                .addMigrations(MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8)
+                .addMigrations(MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10, MIGRATION_10_11, MIGRATION_11_12, MIGRATION_12_13, MIGRATION_13_14, MIGRATION_14_15, MIGRATION_15_16, MIGRATION_16_17, MIGRATION_17_18)
+                .addCallback(new Callback() {
+                    @Override
+                    public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                        RecipeStats.createTriggers(db);
+                    }
+                })
                 .build();
     }
 }
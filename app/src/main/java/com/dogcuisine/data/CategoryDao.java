@@ -4,8 +4,16 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Update;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Dao
 public interface CategoryDao {
@@ -27,4 +35,49 @@ public interface CategoryDao {
 
     @Query("SELECT COUNT(*) FROM categories")
     long count();
+
+    @Insert
+    List<Long> insertNew(List<CategoryEntity> categories);
+
+    @Update
+    int updateAll(List<CategoryEntity> categories);
+
+    /**
+     * 按编辑后的完整列表保存分类：与库中现有分类比对，只插入新增的、更新改名或调整了顺序的，
+     * 删除编辑页载入过（loadedIds）但已不在列表中的。编辑期间由恢复备份、同步等途径新增的分类不在 loadedIds 中，保持不动。
+     * 未变化的行不会被重写；REPLACE 会先删后插，触发删除触发器与外键级联，这里只用 UPDATE
+     */
+    @Transaction
+    default void saveAll(List<Long> loadedIds, List<CategoryEntity> categories) {
+        Map<Long, CategoryEntity> existing = new HashMap<>();
+        for (CategoryEntity category : getAll()) {
+            existing.put(category.getId(), category);
+        }
+        Set<Long> removed = new HashSet<>(loadedIds);
+        List<CategoryEntity> inserts = new ArrayList<>();
+        List<CategoryEntity> updates = new ArrayList<>();
+        for (CategoryEntity category : categories) {
+            CategoryEntity current = null;
+            if (category.getId() != null) {
+                removed.remove(category.getId());
+                current = existing.get(category.getId());
+            }
+            if (current == null) {
+                inserts.add(category);
+            } else if (!Objects.equals(current.getName(), category.getName())
+                    || current.getSortOrder() != category.getSortOrder()) {
+                updates.add(category);
+            }
+        }
+        removed.retainAll(existing.keySet());
+        if (!removed.isEmpty()) {
+            deleteByIds(new ArrayList<>(removed));
+        }
+        if (!updates.isEmpty()) {
+            updateAll(updates);
+        }
+        if (!inserts.isEmpty()) {
+            insertNew(inserts);
+        }
+    }
 }
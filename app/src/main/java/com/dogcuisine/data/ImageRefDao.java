@@ -0,0 +1,30 @@
+package com.dogcuisine.data;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface ImageRefDao {
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertAll(List<ImageRefEntity> refs);
+
+    @Query("DELETE FROM image_refs WHERE recipe_id = :recipeId")
+    void deleteByRecipeId(long recipeId);
+
+    // 主键以 path 开头，DISTINCT 直接走主键索引，无需读取菜谱
+    String REFERENCED_PATHS_QUERY = "SELECT DISTINCT path FROM image_refs";
+    // 只被该菜谱引用的图片，删除菜谱后即成为孤儿
+    String EXCLUSIVE_PATHS_QUERY = "SELECT path FROM image_refs WHERE recipe_id = :recipeId " +
+            "AND path NOT IN (SELECT path FROM image_refs WHERE recipe_id != :recipeId)";
+
+    @Query(REFERENCED_PATHS_QUERY)
+    List<String> getReferencedPaths();
+
+    @Query(EXCLUSIVE_PATHS_QUERY)
+    List<String> getExclusivePaths(long recipeId);
+}
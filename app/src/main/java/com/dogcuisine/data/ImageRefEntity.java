@@ -0,0 +1,39 @@
+package com.dogcuisine.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+
+/**
+ * 图片引用登记：菜谱引用的每个图片路径（封面、食材、步骤）一行，
+ * 同一路径的行数即引用计数，没有任何行的图片文件即为孤儿
+ */
+@Entity(tableName = "image_refs",
+        primaryKeys = {"path", "recipe_id"},
+        indices = {
+                @Index(value = {"recipe_id"})
+        })
+public class ImageRefEntity {
+
+    @ColumnInfo(name = "path")
+    @NonNull
+    private String path;
+
+    @ColumnInfo(name = "recipe_id")
+    private long recipeId;
+
+    public ImageRefEntity(@NonNull String path, long recipeId) {
+        this.path = path;
+        this.recipeId = recipeId;
+    }
+
+    @NonNull
+    public String getPath() {
+        return path;
+    }
+
+    public long getRecipeId() {
+        return recipeId;
+    }
+}
@@ -0,0 +1,70 @@
+package com.dogcuisine.data;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 收集菜谱引用的图片路径，生成 image_refs 行
+ */
+public final class ImageRefs {
+
+    private ImageRefs() {
+    }
+
+    @NonNull
+    public static List<ImageRefEntity> buildRows(long recipeId, @NonNull RecipeEntity recipe, @NonNull List<StepItem> steps) {
+        Set<String> paths = new LinkedHashSet<>();
+        addPath(paths, recipe.getCoverImagePath());
+        for (String path : RecipeSteps.readIngredient(recipe).getImagePaths()) {
+            addPath(paths, path);
+        }
+        for (StepItem step : steps) {
+            if (step != null) {
+                for (String path : step.getImagePaths()) {
+                    addPath(paths, path);
+                }
+            }
+        }
+        List<ImageRefEntity> rows = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            rows.add(new ImageRefEntity(path, recipeId));
+        }
+        return rows;
+    }
+
+    /**
+     * 用 recipes 与 recipe_images 全量重建 image_refs，供数据库迁移使用
+     */
+    static void rebuild(@NonNull SupportSQLiteDatabase database) {
+        database.execSQL("DELETE FROM image_refs");
+        try (Cursor cursor = database.query("SELECT id, cover_image_path, ingredient_json FROM recipes")) {
+            while (cursor.moveToNext()) {
+                Set<String> paths = new LinkedHashSet<>();
+                addPath(paths, cursor.isNull(1) ? null : cursor.getString(1));
+                String ingredientJson = cursor.isNull(2) ? null : cursor.getString(2);
+                for (String path : RecipeSteps.parseIngredient(ingredientJson).getImagePaths()) {
+                    addPath(paths, path);
+                }
+                for (String path : paths) {
+                    database.execSQL("INSERT OR IGNORE INTO image_refs (path, recipe_id) VALUES (?, ?)",
+                            new Object[]{path, cursor.getLong(0)});
+                }
+            }
+        }
+        database.execSQL("INSERT OR IGNORE INTO image_refs (path, recipe_id) SELECT path, recipe_id FROM recipe_images");
+    }
+
+    private static void addPath(@NonNull Set<String> paths, @Nullable String path) {
+        if (path != null && !path.isEmpty()) {
+            paths.add(path);
+        }
+    }
+}
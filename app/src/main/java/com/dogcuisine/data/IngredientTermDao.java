@@ -0,0 +1,32 @@
+package com.dogcuisine.data;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface IngredientTermDao {
+
+    // 主键是 (term, recipe_id)，同一菜谱的每个食材只有一行，COUNT(*) 即命中的不同食材数；
+    // 等于去重后的食材数时说明全部命中
+    String ALL_TERMS_QUERY = "SELECT r.id, r.name, r.updated_at, r.cover_image_path FROM recipes r " +
+            "JOIN (SELECT recipe_id FROM recipe_ingredient_terms WHERE term IN (:terms) " +
+            "GROUP BY recipe_id HAVING COUNT(*) = :termCount) t ON t.recipe_id = r.id " +
+            "ORDER BY r.updated_at DESC, r.id DESC";
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertAll(List<RecipeIngredientTermEntity> terms);
+
+    @Query("DELETE FROM recipe_ingredient_terms WHERE recipe_id = :recipeId")
+    void deleteByRecipeId(long recipeId);
+
+    /**
+     * 同时包含全部食材的菜谱，按更新时间倒序。terms 需已去重，termCount 为其个数；
+     * term IN 走主键索引，只聚合命中的行
+     */
+    @Query(ALL_TERMS_QUERY)
+    List<RecipeSummary> findContainingAll(List<String> terms, int termCount);
+}
@@ -0,0 +1,88 @@
+package com.dogcuisine.data;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 从食材文字中提取食材词，生成 recipe_ingredient_terms 行。
+ * <p>
+ * 食材文字按换行、标点、空白拆分，去掉用量（“2个”“两勺”“适量”等）后剩下的部分即为食材词：
+ * “鸡蛋2个、300g五花肉\n盐适量” → “鸡蛋 五花肉 盐”。筛选时的输入按同样规则提取，保证两边一致
+ */
+public final class IngredientTerms {
+
+    private static final int MAX_TERM_LENGTH = 12;
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s,，、;；:：/|+＋()（）\\[\\]【】。.!！?？\"“”]+");
+    private static final String UNITS = "(个|只|颗|根|片|块|瓣|粒|枚|克|千克|公斤|斤|两|毫升|升|勺|汤匙|茶匙|小勺|大勺|杯|碗|把|条|张|袋|包|盒|罐|撮|滴|段)";
+    private static final String LATIN_UNITS = "(kg|mg|ml|oz|lb|g|l)(?![a-z])";
+    private static final String DIGIT = "[0-9０-９½¼¾]";
+    // 用量写在前面：“2个鸡蛋”“300g五花肉”，只去掉开头的数字和紧跟的单位
+    private static final Pattern LEADING_QUANTITY = Pattern.compile("^" + DIGIT + "+(" + UNITS + "|" + LATIN_UNITS + ")?");
+    // 用量写在后面：数字及其后的内容都视为用量，“鸡蛋2个”“牛奶250ml左右”
+    private static final Pattern TRAILING_QUANTITY = Pattern.compile(DIGIT + ".*$");
+    private static final Pattern WORD_QUANTITY = Pattern.compile(
+            "([半一二两三四五六七八九十几数]+" + UNITS + ")|适量|少许|若干|少量|一些|按需|可选|约");
+
+    private IngredientTerms() {
+    }
+
+    @NonNull
+    public static List<String> extract(@Nullable String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null || text.isEmpty()) {
+            return new ArrayList<>();
+        }
+        for (String part : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            String term = LEADING_QUANTITY.matcher(part).replaceFirst("");
+            term = TRAILING_QUANTITY.matcher(term).replaceFirst("");
+            term = WORD_QUANTITY.matcher(term).replaceAll("").trim();
+            if (!term.isEmpty() && term.length() <= MAX_TERM_LENGTH) {
+                terms.add(term);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    @NonNull
+    public static List<RecipeIngredientTermEntity> buildRows(long recipeId, @NonNull RecipeEntity recipe) {
+        return toRows(recipeId, RecipeSteps.readIngredient(recipe).getText());
+    }
+
+    /**
+     * 用 recipes 表全量重建 recipe_ingredient_terms，供数据库迁移使用
+     */
+    static void rebuild(@NonNull SupportSQLiteDatabase database) {
+        database.execSQL("DELETE FROM recipe_ingredient_terms");
+        try (Cursor cursor = database.query("SELECT id, ingredient_blob, ingredient_json FROM recipes")) {
+            while (cursor.moveToNext()) {
+                StepItem ingredient = cursor.isNull(1)
+                        ? RecipeSteps.parseIngredient(cursor.isNull(2) ? null : cursor.getString(2))
+                        : StepItemCodec.decode(cursor.getBlob(1));
+                for (RecipeIngredientTermEntity row : toRows(cursor.getLong(0), ingredient.getText())) {
+                    database.execSQL("INSERT OR IGNORE INTO recipe_ingredient_terms (term, recipe_id) VALUES (?, ?)",
+                            new Object[]{row.getTerm(), row.getRecipeId()});
+                }
+            }
+        }
+    }
+
+    @NonNull
+    private static List<RecipeIngredientTermEntity> toRows(long recipeId, @Nullable String text) {
+        List<String> terms = extract(text);
+        List<RecipeIngredientTermEntity> rows = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            rows.add(new RecipeIngredientTermEntity(term, recipeId));
+        }
+        return rows;
+    }
+}
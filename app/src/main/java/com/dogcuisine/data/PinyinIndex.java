@@ -0,0 +1,131 @@
+package com.dogcuisine.data;
+
+import android.database.Cursor;
+import android.icu.text.Transliterator;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 菜谱名称转拼音，使用系统 ICU 的 Han-Latin 转写，不依赖第三方库
+ */
+public final class PinyinIndex {
+
+    private static Transliterator transliterator;
+
+    private PinyinIndex() {
+    }
+
+    @NonNull
+    public static List<RecipePinyinEntity> buildRows(long recipeId, @Nullable String name) {
+        List<String> syllables = toSyllables(name);
+        List<RecipePinyinEntity> rows = new ArrayList<>(syllables.size());
+        for (int start = 0; start < syllables.size(); start++) {
+            StringBuilder full = new StringBuilder();
+            StringBuilder initials = new StringBuilder();
+            for (int i = start; i < syllables.size(); i++) {
+                String syllable = syllables.get(i);
+                full.append(syllable);
+                initials.append(syllable.charAt(0));
+            }
+            rows.add(new RecipePinyinEntity(recipeId, start, full.toString(), initials.toString()));
+        }
+        return rows;
+    }
+
+    /**
+     * 把关键词规整为拼音前缀（小写字母数字，去掉空格和隔音符），不是拼音输入时返回 null
+     */
+    @Nullable
+    public static String normalizeQuery(@Nullable String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        String lower = keyword.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                sb.append(c);
+            } else if (!Character.isWhitespace(c) && c != '\'') {
+                return null;
+            }
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    /**
+     * 用 recipes 表全量重建 recipe_pinyin，供数据库迁移使用
+     */
+    static void rebuild(@NonNull SupportSQLiteDatabase database) {
+        database.execSQL("DELETE FROM recipe_pinyin");
+        try (Cursor cursor = database.query("SELECT id, name FROM recipes")) {
+            while (cursor.moveToNext()) {
+                for (RecipePinyinEntity row : buildRows(cursor.getLong(0), cursor.getString(1))) {
+                    database.execSQL("INSERT INTO recipe_pinyin (recipe_id, position, full_pinyin, initials) VALUES (?, ?, ?, ?)",
+                            new Object[]{row.getRecipeId(), row.getPosition(), row.getFullPinyin(), row.getInitials()});
+                }
+            }
+        }
+    }
+
+    // 汉字逐字转写为一个音节，连续的字母数字作为一个音节，其它字符忽略
+    @NonNull
+    private static List<String> toSyllables(@Nullable String name) {
+        List<String> syllables = new ArrayList<>();
+        if (name == null || name.isEmpty()) {
+            return syllables;
+        }
+        StringBuilder word = new StringBuilder();
+        int offset = 0;
+        while (offset < name.length()) {
+            int cp = name.codePointAt(offset);
+            offset += Character.charCount(cp);
+            if (Character.UnicodeScript.of(cp) == Character.UnicodeScript.HAN) {
+                flushWord(syllables, word);
+                String syllable = asciiLetters(transliterate(new String(Character.toChars(cp))));
+                if (!syllable.isEmpty()) {
+                    syllables.add(syllable);
+                }
+            } else if (cp < 128 && Character.isLetterOrDigit(cp)) {
+                word.append(Character.toLowerCase((char) cp));
+            } else {
+                flushWord(syllables, word);
+            }
+        }
+        flushWord(syllables, word);
+        return syllables;
+    }
+
+    private static void flushWord(@NonNull List<String> syllables, @NonNull StringBuilder word) {
+        if (word.length() > 0) {
+            syllables.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    @NonNull
+    private static synchronized String transliterate(@NonNull String text) {
+        if (transliterator == null) {
+            transliterator = Transliterator.getInstance("Han-Latin; Latin-ASCII; Lower");
+        }
+        return transliterator.transliterate(text);
+    }
+
+    @NonNull
+    private static String asciiLetters(@NonNull String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -4,6 +4,7 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Update;
 
 import java.util.List;
 
@@ -13,39 +14,42 @@ public interface RecipeDao {
     @Query("SELECT * FROM recipes ORDER BY updated_at DESC")
     List<RecipeEntity> getAll();
 
-    @Query("SELECT * FROM recipes WHERE ((:categoryId IS NULL AND category_id IS NULL) OR category_id = :categoryId) ORDER BY updated_at DESC")
-    List<RecipeEntity> getByCategoryId(Long categoryId);
+    // 列表分页按 (updated_at, id) 游标翻页：首页传 Long.MAX_VALUE，之后传上一页最后一条的值
+    String SUMMARY_PAGE_AFTER = " AND updated_at <= :afterUpdatedAt " +
+            "AND (updated_at < :afterUpdatedAt OR (updated_at = :afterUpdatedAt AND id < :afterId)) " +
+            "ORDER BY updated_at DESC, id DESC LIMIT :limit";
+    String CATEGORY_SUMMARY_PAGE_QUERY = "SELECT id, name, updated_at, cover_image_path FROM recipes " +
+            "WHERE category_id IS :categoryId" + SUMMARY_PAGE_AFTER;
+    String FAVORITE_SUMMARY_PAGE_QUERY = "SELECT id, name, updated_at, cover_image_path FROM recipes " +
+            "WHERE is_favorite = 1" + SUMMARY_PAGE_AFTER;
+    String RATING_SUMMARY_PAGE_QUERY = "SELECT id, name, updated_at, cover_image_path FROM recipes " +
+            "WHERE rating = :rating" + SUMMARY_PAGE_AFTER;
+
+    @Query(CATEGORY_SUMMARY_PAGE_QUERY)
+    List<RecipeSummary> getSummaryPageByCategoryId(Long categoryId, long afterUpdatedAt, long afterId, int limit);
 
     @Query("SELECT * FROM recipes WHERE id = :id LIMIT 1")
     RecipeEntity getById(long id);
 
-    @Query("SELECT COUNT(*) FROM recipes WHERE category_id = :categoryId")
-    long countByCategoryId(Long categoryId);
-
-    @Query("SELECT * FROM recipes WHERE name LIKE :keyword OR content LIKE :keyword OR ingredient_json LIKE :keyword ORDER BY updated_at DESC")
-    List<RecipeEntity> searchByKeyword(String keyword);
+    @Query(FAVORITE_SUMMARY_PAGE_QUERY)
+    List<RecipeSummary> getFavoriteSummaryPage(long afterUpdatedAt, long afterId, int limit);
 
-    @Query("SELECT * FROM recipes WHERE is_favorite = 1 ORDER BY updated_at DESC")
-    List<RecipeEntity> getFavorites();
-
-    @Query("SELECT * FROM recipes WHERE rating = :rating ORDER BY updated_at DESC")
-    List<RecipeEntity> getByRating(int rating);
-
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertAll(List<RecipeEntity> recipes);
+    @Query(RATING_SUMMARY_PAGE_QUERY)
+    List<RecipeSummary> getSummaryPageByRating(int rating, long afterUpdatedAt, long afterId, int limit);
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     long insert(RecipeEntity recipe);
 
+    @Update
+    int update(RecipeEntity recipe);
+
     @Query("DELETE FROM recipes WHERE id = :id")
     void deleteById(long id);
 
-    @Query("UPDATE recipes SET is_favorite = :favorite WHERE id = :id")
+    // 值未变化时不匹配任何行，不产生写入，也不触发表失效通知
+    @Query("UPDATE recipes SET is_favorite = :favorite WHERE id = :id AND is_favorite != :favorite")
     void updateFavorite(long id, int favorite);
 
-    @Query("UPDATE recipes SET rating = :rating WHERE id = :id")
+    @Query("UPDATE recipes SET rating = :rating WHERE id = :id AND rating != :rating")
     void updateRating(long id, int rating);
-
-    @Query("SELECT COUNT(*) FROM recipes")
-    long count();
 }
@@ -0,0 +1,84 @@
+package com.dogcuisine.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 解码完成的菜谱：记录本身、步骤、食材与分类名，供详情与编辑页直接使用，缓存在 {@link RecipeRepository}
+ */
+public final class RecipeDetail {
+
+    // 每个条目的固定开销，按字符计
+    private static final int BASE_WEIGHT = 256;
+
+    @NonNull
+    private final RecipeEntity recipe;
+    @NonNull
+    private final List<StepItem> steps;
+    @NonNull
+    private final StepItem ingredient;
+    @Nullable
+    private final String categoryName;
+    private final int weight;
+
+    RecipeDetail(@NonNull RecipeEntity recipe, @NonNull List<StepItem> steps,
+                 @NonNull StepItem ingredient, @Nullable String categoryName) {
+        this.recipe = recipe;
+        this.steps = Collections.unmodifiableList(steps);
+        this.ingredient = ingredient;
+        this.categoryName = categoryName;
+        this.weight = computeWeight();
+    }
+
+    @NonNull
+    public RecipeEntity getRecipe() {
+        return recipe;
+    }
+
+    @NonNull
+    public List<StepItem> getSteps() {
+        return steps;
+    }
+
+    @NonNull
+    public StepItem getIngredient() {
+        return ingredient;
+    }
+
+    @Nullable
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    /**
+     * 缓存权重，约等于持有的字符数
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    private int computeWeight() {
+        int total = BASE_WEIGHT + length(recipe.getName()) + length(recipe.getContent())
+                + length(recipe.getCoverImagePath()) + length(categoryName);
+        total += itemWeight(ingredient);
+        for (StepItem step : steps) {
+            total += itemWeight(step);
+        }
+        return total;
+    }
+
+    private static int itemWeight(@NonNull StepItem item) {
+        int total = length(item.getText());
+        for (String path : item.getImagePaths()) {
+            total += length(path);
+        }
+        return total;
+    }
+
+    private static int length(@Nullable String value) {
+        return value == null ? 0 : value.length();
+    }
+}
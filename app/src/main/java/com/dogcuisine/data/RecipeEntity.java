@@ -4,9 +4,17 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "recipes")
+// 列表查询按分类 / 收藏 / 评分过滤并按 (updated_at, id) 分页排序，索引附带 name 与封面路径以覆盖摘要查询
+@Entity(tableName = "recipes",
+        indices = {
+                @Index(value = {"category_id", "updated_at", "id", "name", "cover_image_path"}),
+                @Index(value = {"is_favorite", "updated_at", "id", "name", "cover_image_path"}),
+                @Index(value = {"rating", "updated_at", "id", "name", "cover_image_path"}),
+                @Index(value = {"updated_at"})
+        })
 public class RecipeEntity {
 
     @PrimaryKey(autoGenerate = true)
@@ -31,15 +39,20 @@ public class RecipeEntity {
     @Nullable
     private String coverImagePath;
 
-    // 步骤列表序列化（JSON），包含文字与多图
+    // 旧版步骤列表序列化（JSON），v14 起步骤拆到 recipe_steps / recipe_images，此列不再写入
     @ColumnInfo(name = "steps_json", typeAffinity = ColumnInfo.TEXT)
     private String stepsJson;
 
-    // 食材序列化（JSON），结构与单个步骤一致（文字 + 多图）
+    // 旧版食材序列化（JSON），结构与单个步骤一致（文字 + 多图）；新保存的菜谱写入 ingredient_blob 并清空此列
     @ColumnInfo(name = "ingredient_json", typeAffinity = ColumnInfo.TEXT, defaultValue = "''")
     @NonNull
     private String ingredientJson;
 
+    // 食材（StepItemCodec 二进制编码），为 null 时回退读取 ingredient_json
+    @ColumnInfo(name = "ingredient_blob", typeAffinity = ColumnInfo.BLOB)
+    @Nullable
+    private StepItem ingredient;
+
     // 菜谱分类 ID
     @ColumnInfo(name = "category_id")
     @Nullable
@@ -134,6 +147,15 @@ public class RecipeEntity {
         this.ingredientJson = ingredientJson;
     }
 
+    @Nullable
+    public StepItem getIngredient() {
+        return ingredient;
+    }
+
+    public void setIngredient(@Nullable StepItem ingredient) {
+        this.ingredient = ingredient;
+    }
+
     @Nullable
     public Long getCategoryId() {
         return categoryId;
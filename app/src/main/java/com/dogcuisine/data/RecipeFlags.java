@@ -0,0 +1,59 @@
+package com.dogcuisine.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * 一个菜谱待写入的收藏 / 评分，null 表示该项不变
+ */
+public final class RecipeFlags {
+
+    @Nullable
+    private final Integer favorite;
+    @Nullable
+    private final Integer rating;
+
+    public RecipeFlags(@Nullable Integer favorite, @Nullable Integer rating) {
+        this.favorite = favorite;
+        this.rating = rating;
+    }
+
+    @Nullable
+    public Integer getFavorite() {
+        return favorite;
+    }
+
+    @Nullable
+    public Integer getRating() {
+        return rating;
+    }
+
+    @NonNull
+    public RecipeFlags withFavorite(int favorite) {
+        return new RecipeFlags(favorite, rating);
+    }
+
+    @NonNull
+    public RecipeFlags withRating(int rating) {
+        return new RecipeFlags(favorite, rating);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RecipeFlags)) {
+            return false;
+        }
+        RecipeFlags other = (RecipeFlags) o;
+        return Objects.equals(favorite, other.favorite) && Objects.equals(rating, other.rating);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(favorite, rating);
+    }
+}
@@ -0,0 +1,60 @@
+package com.dogcuisine.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+/**
+ * 菜谱全文检索索引，rowid 与 recipes.id 一致，写入菜谱时同步维护
+ */
+@Fts4(tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "recipe_fts")
+public class RecipeFtsEntity {
+
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private long rowId;
+
+    @ColumnInfo(name = "name")
+    @NonNull
+    private String name;
+
+    // 食材文字（不含图片路径）
+    @ColumnInfo(name = "ingredient")
+    @NonNull
+    private String ingredient;
+
+    // 正文与全部步骤文字拼接
+    @ColumnInfo(name = "steps")
+    @NonNull
+    private String steps;
+
+    public RecipeFtsEntity(long rowId, @NonNull String name, @NonNull String ingredient, @NonNull String steps) {
+        this.rowId = rowId;
+        this.name = name;
+        this.ingredient = ingredient;
+        this.steps = steps;
+    }
+
+    public long getRowId() {
+        return rowId;
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    @NonNull
+    public String getIngredient() {
+        return ingredient;
+    }
+
+    @NonNull
+    public String getSteps() {
+        return steps;
+    }
+}
@@ -0,0 +1,57 @@
+package com.dogcuisine.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+
+/**
+ * 步骤图片，每张图片一行，按 (步骤序号, 图片序号) 排序；path 建索引便于按路径反查
+ */
+@Entity(tableName = "recipe_images",
+        primaryKeys = {"recipe_id", "step_position", "position"},
+        indices = {
+                @Index(value = {"path"})
+        })
+public class RecipeImageEntity {
+
+    @ColumnInfo(name = "recipe_id")
+    private long recipeId;
+
+    // 所属步骤序号，对应 recipe_steps.position
+    @ColumnInfo(name = "step_position")
+    private int stepPosition;
+
+    // 步骤内的图片序号，从 0 开始
+    @ColumnInfo(name = "position")
+    private int position;
+
+    // 图片本地路径
+    @ColumnInfo(name = "path")
+    @NonNull
+    private String path;
+
+    public RecipeImageEntity(long recipeId, int stepPosition, int position, @NonNull String path) {
+        this.recipeId = recipeId;
+        this.stepPosition = stepPosition;
+        this.position = position;
+        this.path = path;
+    }
+
+    public long getRecipeId() {
+        return recipeId;
+    }
+
+    public int getStepPosition() {
+        return stepPosition;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    @NonNull
+    public String getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,38 @@
+package com.dogcuisine.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+
+/**
+ * 食材倒排索引：从食材文字中提取的每个食材词一行，按词查菜谱走主键索引，无需解析 ingredient 列
+ */
+@Entity(tableName = "recipe_ingredient_terms",
+        primaryKeys = {"term", "recipe_id"},
+        indices = {
+                @Index(value = {"recipe_id"})
+        })
+public class RecipeIngredientTermEntity {
+
+    @ColumnInfo(name = "term")
+    @NonNull
+    private String term;
+
+    @ColumnInfo(name = "recipe_id")
+    private long recipeId;
+
+    public RecipeIngredientTermEntity(@NonNull String term, long recipeId) {
+        this.term = term;
+        this.recipeId = recipeId;
+    }
+
+    @NonNull
+    public String getTerm() {
+        return term;
+    }
+
+    public long getRecipeId() {
+        return recipeId;
+    }
+}
@@ -0,0 +1,61 @@
+package com.dogcuisine.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+
+/**
+ * 菜谱名称拼音索引：名称每个音节起点一行，保存从该音节开始的全拼与首字母，
+ * 用前缀区间查询即可匹配名称中任意位置开始的拼音
+ */
+@Entity(tableName = "recipe_pinyin",
+        primaryKeys = {"recipe_id", "position"},
+        indices = {
+                @Index(value = {"full_pinyin"}),
+                @Index(value = {"initials"})
+        })
+public class RecipePinyinEntity {
+
+    @ColumnInfo(name = "recipe_id")
+    private long recipeId;
+
+    // 音节序号，从 0 开始
+    @ColumnInfo(name = "position")
+    private int position;
+
+    // 从该音节开始的全拼，如 “qiechaodan”
+    @ColumnInfo(name = "full_pinyin")
+    @NonNull
+    private String fullPinyin;
+
+    // 从该音节开始的首字母，如 “qcd”
+    @ColumnInfo(name = "initials")
+    @NonNull
+    private String initials;
+
+    public RecipePinyinEntity(long recipeId, int position, @NonNull String fullPinyin, @NonNull String initials) {
+        this.recipeId = recipeId;
+        this.position = position;
+        this.fullPinyin = fullPinyin;
+        this.initials = initials;
+    }
+
+    public long getRecipeId() {
+        return recipeId;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    @NonNull
+    public String getFullPinyin() {
+        return fullPinyin;
+    }
+
+    @NonNull
+    public String getInitials() {
+        return initials;
+    }
+}
@@ -0,0 +1,96 @@
+package com.dogcuisine.data;
+
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.InvalidationTracker;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按 id 缓存解码后的菜谱，容量按条目权重计算。
+ * <p>
+ * 菜谱的写入都经过 {@link AppDatabase} 的保存 / 删除方法，由其按 id 精确失效；
+ * 分类改名会影响所有条目的分类名，categories 表变化时整体清空。
+ */
+public final class RecipeRepository {
+
+    // 约 1M 字符
+    private static final int MAX_WEIGHT = 1024 * 1024;
+
+    private final AppDatabase database;
+    private final LruCache<Long, RecipeDetail> cache = new LruCache<Long, RecipeDetail>(MAX_WEIGHT) {
+        @Override
+        protected int sizeOf(@NonNull Long key, @NonNull RecipeDetail value) {
+            return value.getWeight();
+        }
+    };
+    // 每次失效递增；读取期间发生过失效则不回填，避免把旧数据写回缓存
+    private final AtomicLong invalidations = new AtomicLong();
+
+    RecipeRepository(@NonNull AppDatabase database) {
+        this.database = database;
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer(new String[]{"categories"}) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidateAll();
+            }
+        });
+    }
+
+    /**
+     * 读取解码后的菜谱，优先命中缓存；菜谱不存在时返回 null。需在后台线程调用
+     */
+    @Nullable
+    public RecipeDetail getRecipe(long id) {
+        RecipeDetail cached = cache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long version = invalidations.get();
+        // 不开事务：事务会占用唯一的写连接，详情读取会和保存、导入互相排队。
+        // 与并发保存交错时这次返回的结果可能新旧混合，但保存提交后必定失效该 id，混合结果不会留在缓存里
+        RecipeEntity recipe = database.recipeDao().getById(id);
+        if (recipe == null) {
+            return null;
+        }
+        List<StepItem> steps = database.loadSteps(id);
+        String categoryName = null;
+        if (recipe.getCategoryId() != null) {
+            CategoryEntity category = database.categoryDao().getById(recipe.getCategoryId());
+            categoryName = category != null ? category.getName() : null;
+        }
+        RecipeDetail loaded = new RecipeDetail(recipe, steps, RecipeSteps.readIngredient(recipe), categoryName);
+        if (invalidations.get() == version) {
+            cache.put(id, loaded);
+        }
+        return loaded;
+    }
+
+    public int hitCount() {
+        return cache.hitCount();
+    }
+
+    public int missCount() {
+        return cache.missCount();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "RecipeRepository[" + cache + ", size=" + cache.size() + "]";
+    }
+
+    void invalidate(long id) {
+        invalidations.incrementAndGet();
+        cache.remove(id);
+    }
+
+    void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.evictAll();
+    }
+}
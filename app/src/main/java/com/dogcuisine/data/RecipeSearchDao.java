@@ -0,0 +1,24 @@
+package com.dogcuisine.data;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface RecipeSearchDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(RecipeFtsEntity row);
+
+    @Query("DELETE FROM recipe_fts WHERE rowid = :recipeId")
+    void deleteByRecipeId(long recipeId);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertPinyin(List<RecipePinyinEntity> rows);
+
+    @Query("DELETE FROM recipe_pinyin WHERE recipe_id = :recipeId")
+    void deletePinyinByRecipeId(long recipeId);
+}
@@ -0,0 +1,209 @@
+package com.dogcuisine.data;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * recipe_fts 的行构建与 MATCH 表达式生成
+ */
+public final class RecipeSearchIndex {
+
+    private RecipeSearchIndex() {
+    }
+
+    @NonNull
+    public static RecipeFtsEntity buildRow(long recipeId, @NonNull RecipeEntity recipe, @NonNull List<StepItem> steps) {
+        return new RecipeFtsEntity(
+                recipeId,
+                SearchTokenizer.segmentForIndex(recipe.getName()),
+                SearchTokenizer.segmentForIndex(ingredientText(recipe)),
+                SearchTokenizer.segmentForIndex(stepsText(recipe.getContent(), steps))
+        );
+    }
+
+    /**
+     * 生成全文匹配表达式：按空白拆分关键词，每个词经 {@link SearchTokenizer} 切分成短语并做前缀匹配，
+     * 多个词取交集；没有可检索内容时返回 null
+     */
+    @Nullable
+    public static String buildMatchQuery(@Nullable String keyword) {
+        return buildQuery(keyword, null);
+    }
+
+    /**
+     * 同 {@link #buildMatchQuery(String)}，但只匹配名称列，用于结果排序
+     */
+    @Nullable
+    public static String buildNameMatchQuery(@Nullable String keyword) {
+        return buildQuery(keyword, "name");
+    }
+
+    /**
+     * 用 recipes 表全量重建 recipe_fts，供数据库迁移使用
+     */
+    static void rebuild(@NonNull SupportSQLiteDatabase database) {
+        database.execSQL("DELETE FROM recipe_fts");
+        try (Cursor cursor = database.query(
+                "SELECT id, name, content, steps_json, ingredient_json FROM recipes")) {
+            while (cursor.moveToNext()) {
+                RecipeEntity recipe = new RecipeEntity(
+                        cursor.getLong(0),
+                        cursor.getString(1),
+                        0,
+                        0,
+                        cursor.getString(2),
+                        null,
+                        cursor.getString(3),
+                        cursor.isNull(4) ? "" : cursor.getString(4),
+                        null,
+                        0,
+                        0
+                );
+                // 该迁移早于步骤拆表，步骤仍从 steps_json 读取
+                RecipeFtsEntity row = buildRow(cursor.getLong(0), recipe, RecipeSteps.parseLegacyJson(recipe.getStepsJson()));
+                database.execSQL("INSERT INTO recipe_fts (rowid, name, ingredient, steps) VALUES (?, ?, ?, ?)",
+                        new Object[]{row.getRowId(), row.getName(), row.getIngredient(), row.getSteps()});
+            }
+        }
+    }
+
+    /**
+     * 把关键词切成短语列表，与 {@link #buildMatchQuery(String)} 的规则一致，每个短语为小写词序列
+     */
+    @NonNull
+    static List<List<String>> queryPhrases(@Nullable String keyword) {
+        List<List<String>> phrases = new ArrayList<>();
+        for (String term : splitTerms(normalize(keyword))) {
+            List<String> tokens = SearchTokenizer.segmentQueryTerm(term);
+            if (tokens.isEmpty()) {
+                continue;
+            }
+            List<String> phrase = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                phrase.add(token.toLowerCase(Locale.ROOT));
+            }
+            phrases.add(phrase);
+        }
+        return phrases;
+    }
+
+    /**
+     * 把 recipe_fts 列内容拆成小写词序列，供内存匹配使用
+     */
+    @NonNull
+    static String[] indexTokens(@Nullable String column) {
+        if (column == null || column.isEmpty()) {
+            return new String[0];
+        }
+        return column.toLowerCase(Locale.ROOT).split(" ");
+    }
+
+    /**
+     * 在内存中按 MATCH 语义判断：每个短语都要在某一列中连续出现，末词前缀匹配
+     */
+    static boolean matches(@NonNull List<List<String>> phrases, @NonNull String[]... columns) {
+        if (phrases.isEmpty()) {
+            return false;
+        }
+        for (List<String> phrase : phrases) {
+            boolean found = false;
+            for (String[] column : columns) {
+                if (containsPhrase(column, phrase)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    private static String buildQuery(@Nullable String keyword, @Nullable String column) {
+        StringBuilder sb = new StringBuilder();
+        for (List<String> tokens : queryPhrases(keyword)) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            if (column != null) {
+                sb.append(column).append(':');
+            }
+            // 切分结果只含字母数字，双引号包裹成短语，末词前缀匹配
+            sb.append('"');
+            for (int i = 0; i < tokens.size(); i++) {
+                if (i > 0) {
+                    sb.append(' ');
+                }
+                sb.append(tokens.get(i));
+            }
+            sb.append("*\"");
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    private static boolean containsPhrase(@NonNull String[] column, @NonNull List<String> phrase) {
+        int last = phrase.size() - 1;
+        for (int start = 0; start + last < column.length; start++) {
+            boolean matched = true;
+            for (int i = 0; i < last; i++) {
+                if (!column[start + i].equals(phrase.get(i))) {
+                    matched = false;
+                    break;
+                }
+            }
+            if (matched && column[start + last].startsWith(phrase.get(last))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @NonNull
+    private static List<String> splitTerms(@NonNull String text) {
+        List<String> terms = new ArrayList<>();
+        for (String part : text.split("\\s+")) {
+            String term = part.replace("\"", "").trim();
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    @NonNull
+    private static String ingredientText(@NonNull RecipeEntity recipe) {
+        String text = RecipeSteps.readIngredient(recipe).getText();
+        return text != null ? text : "";
+    }
+
+    @NonNull
+    private static String stepsText(@Nullable String content, @NonNull List<StepItem> steps) {
+        StringBuilder sb = new StringBuilder();
+        if (content != null && !content.isEmpty()) {
+            sb.append(content);
+        }
+        for (StepItem step : steps) {
+            if (step != null && step.getText() != null && !step.getText().isEmpty()) {
+                if (sb.length() > 0) {
+                    sb.append('\n');
+                }
+                sb.append(step.getText());
+            }
+        }
+        return sb.toString();
+    }
+
+    @NonNull
+    private static String normalize(@Nullable String text) {
+        return text == null ? "" : text.trim();
+    }
+}
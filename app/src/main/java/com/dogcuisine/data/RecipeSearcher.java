@@ -0,0 +1,296 @@
+package com.dogcuisine.data;
+
+import android.database.Cursor;
+import android.os.CancellationSignal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.InvalidationTracker;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 可取消的菜谱检索：查询通过 {@link CancellationSignal} 执行，输入新关键词时可中断正在扫描的旧查询。
+ * 取消后抛出 {@link android.os.OperationCanceledException}
+ * <p>
+ * 同一搜索页内缓存上一次的候选集（索引文字与拼音）。新关键词在旧关键词后追加输入时，
+ * 结果必然是旧结果的子集，直接在内存中过滤；删字或菜谱、检索索引表变化后回到数据库查询。
+ * 用完需调用 {@link #close()} 注销表观察者
+ */
+public final class RecipeSearcher {
+
+    // 候选过多时不缓存，避免长步骤文字占用过多内存
+    static final int MAX_CACHED_CANDIDATES = 300;
+
+    // 名称命中的排在前面，其余按更新时间倒序
+    static final String TEXT_QUERY = "SELECT r.id, r.name, r.updated_at, r.cover_image_path FROM recipes r " +
+            "JOIN recipe_fts ON recipe_fts.rowid = r.id " +
+            "WHERE recipe_fts MATCH ? " +
+            "ORDER BY (r.id IN (SELECT rowid FROM recipe_fts WHERE recipe_fts MATCH ?)) DESC, r.updated_at DESC";
+
+    // 候选集的索引文字，只在命中数不超过缓存上限时读取；常见词命中数千行时，读出长文字的开销远大于匹配本身
+    static final String INDEX_TEXT_QUERY = "SELECT rowid, name, ingredient, steps FROM recipe_fts WHERE recipe_fts MATCH ?";
+
+    // 拼音只存小写字母数字，'{' 紧随 'z' 之后，用作前缀区间上界以走索引范围扫描
+    static final String PINYIN_QUERY = "SELECT id, name, updated_at, cover_image_path, " +
+            "(SELECT group_concat(p.full_pinyin || ' ' || p.initials, ' ') FROM recipe_pinyin p WHERE p.recipe_id = recipes.id) " +
+            "FROM recipes WHERE id IN (" +
+            "SELECT recipe_id FROM recipe_pinyin WHERE full_pinyin >= ? AND full_pinyin < ? || '{' " +
+            "UNION SELECT recipe_id FROM recipe_pinyin WHERE initials >= ? AND initials < ? || '{') " +
+            "ORDER BY updated_at DESC";
+
+    private static final Comparator<TextHit> TEXT_ORDER = (a, b) -> {
+        if (a.nameHit != b.nameHit) {
+            return a.nameHit ? -1 : 1;
+        }
+        return Long.compare(b.summary.getUpdatedAt(), a.summary.getUpdatedAt());
+    };
+
+    private final AppDatabase database;
+    // 候选集里的索引文字与拼音来自 recipe_fts / recipe_pinyin，只改步骤文字时 recipes 不会变化，三张表都要观察
+    private final InvalidationTracker.Observer observer = new InvalidationTracker.Observer(
+            new String[]{"recipes", "recipe_fts", "recipe_pinyin"}) {
+        @Override
+        public void onInvalidated(@NonNull Set<String> tables) {
+            synchronized (RecipeSearcher.this) {
+                generation++;
+                last = null;
+            }
+        }
+    };
+    // 以下两项由 this 保护。表变化后 generation 递增，查询或过滤期间发生过变化的结果不进入缓存
+    private long generation;
+    @Nullable
+    private Snapshot last;
+
+    public RecipeSearcher(@NonNull AppDatabase database) {
+        this.database = database;
+        database.getInvalidationTracker().addObserver(observer);
+    }
+
+    public void close() {
+        database.getInvalidationTracker().removeObserver(observer);
+        synchronized (this) {
+            last = null;
+        }
+    }
+
+    /**
+     * 关键词能否直接由缓存过滤得到结果，调用方可据此跳过防抖
+     */
+    public synchronized boolean canRefine(@NonNull String keyword) {
+        return last != null && last.canRefine(keyword);
+    }
+
+    /**
+     * 全文命中在前，拼音命中追加在后并去重；关键词没有可检索内容时返回空列表
+     */
+    @NonNull
+    public List<RecipeSummary> search(@NonNull String keyword, @NonNull CancellationSignal signal) {
+        long version;
+        Snapshot previous;
+        synchronized (this) {
+            version = generation;
+            previous = last;
+        }
+        Snapshot snapshot = previous != null && previous.canRefine(keyword)
+                ? previous.refine(keyword)
+                : query(keyword, signal);
+        if (snapshot.cacheable && snapshot.size() <= MAX_CACHED_CANDIDATES) {
+            synchronized (this) {
+                // 版本与缓存在同一把锁内读写，版本未变说明 previous 和查询结果都不早于最近一次变化
+                if (generation == version) {
+                    last = snapshot;
+                }
+            }
+        }
+        return snapshot.toResults();
+    }
+
+    @NonNull
+    private Snapshot query(@NonNull String keyword, @NonNull CancellationSignal signal) {
+        String matchQuery = RecipeSearchIndex.buildMatchQuery(keyword);
+        String nameMatchQuery = RecipeSearchIndex.buildNameMatchQuery(keyword);
+        String pinyinPrefix = PinyinIndex.normalizeQuery(keyword);
+        List<RecipeSummary> textSummaries = new ArrayList<>();
+        if (matchQuery != null && nameMatchQuery != null) {
+            try (Cursor cursor = database.query(
+                    new SimpleSQLiteQuery(TEXT_QUERY, new Object[]{matchQuery, nameMatchQuery}), signal)) {
+                while (cursor.moveToNext()) {
+                    textSummaries.add(readSummary(cursor));
+                }
+            }
+        }
+        boolean cacheable = textSummaries.size() <= MAX_CACHED_CANDIDATES;
+        List<TextHit> textHits = new ArrayList<>(textSummaries.size());
+        if (cacheable && !textSummaries.isEmpty()) {
+            signal.throwIfCanceled();
+            Map<Long, String[][]> columns = new HashMap<>();
+            try (Cursor cursor = database.query(
+                    new SimpleSQLiteQuery(INDEX_TEXT_QUERY, new Object[]{matchQuery}), signal)) {
+                while (cursor.moveToNext()) {
+                    columns.put(cursor.getLong(0), new String[][]{
+                            RecipeSearchIndex.indexTokens(cursor.getString(1)),
+                            RecipeSearchIndex.indexTokens(cursor.getString(2)),
+                            RecipeSearchIndex.indexTokens(cursor.getString(3))});
+                }
+            }
+            List<List<String>> namePhrases = RecipeSearchIndex.queryPhrases(keyword);
+            for (RecipeSummary summary : textSummaries) {
+                String[][] text = columns.get(summary.getId());
+                if (text == null) {
+                    // 两次查询之间索引被改动，结果照常返回，但不能用来过滤
+                    cacheable = false;
+                    text = new String[][]{new String[0], new String[0], new String[0]};
+                }
+                textHits.add(new TextHit(summary, text[0], text[1], text[2],
+                        RecipeSearchIndex.matches(namePhrases, text[0])));
+            }
+        } else {
+            // 不缓存的结果只用于展示，顺序已由 SQL 决定
+            for (RecipeSummary summary : textSummaries) {
+                textHits.add(new TextHit(summary, new String[0], new String[0], new String[0], false));
+            }
+        }
+        List<PinyinHit> pinyinHits = new ArrayList<>();
+        if (pinyinPrefix != null) {
+            signal.throwIfCanceled();
+            Object[] args = {pinyinPrefix, pinyinPrefix, pinyinPrefix, pinyinPrefix};
+            try (Cursor cursor = database.query(new SimpleSQLiteQuery(PINYIN_QUERY, args), signal)) {
+                while (cursor.moveToNext()) {
+                    String pinyin = cursor.isNull(4) ? "" : cursor.getString(4);
+                    pinyinHits.add(new PinyinHit(readSummary(cursor), pinyin.split(" ")));
+                }
+            }
+        }
+        return new Snapshot(keyword, matchQuery != null, pinyinPrefix != null, textHits, pinyinHits, cacheable);
+    }
+
+    @NonNull
+    private static RecipeSummary readSummary(@NonNull Cursor cursor) {
+        return new RecipeSummary(cursor.getLong(0), cursor.getString(1), cursor.getLong(2),
+                cursor.isNull(3) ? null : cursor.getString(3));
+    }
+
+    /**
+     * 某个关键词的完整候选集，创建后不再修改，可在多个读线程间共享
+     */
+    private static final class Snapshot {
+        final String keyword;
+        final boolean hasText;
+        final boolean hasPinyin;
+        final List<TextHit> textHits;
+        final List<PinyinHit> pinyinHits;
+        // 全文命中带有索引文字时才能在内存中过滤
+        final boolean cacheable;
+
+        Snapshot(@NonNull String keyword, boolean hasText, boolean hasPinyin,
+                 @NonNull List<TextHit> textHits, @NonNull List<PinyinHit> pinyinHits, boolean cacheable) {
+            this.keyword = keyword;
+            this.hasText = hasText;
+            this.hasPinyin = hasPinyin;
+            this.textHits = textHits;
+            this.pinyinHits = pinyinHits;
+            this.cacheable = cacheable;
+        }
+
+        int size() {
+            return textHits.size() + pinyinHits.size();
+        }
+
+        /**
+         * 只有追加输入才能缩小结果；旧关键词某一路没有可检索内容（如全是标点）时，新关键词可能命中更多，需重新查询
+         */
+        boolean canRefine(@NonNull String newKeyword) {
+            if (!newKeyword.startsWith(keyword)) {
+                return false;
+            }
+            boolean newHasText = RecipeSearchIndex.buildMatchQuery(newKeyword) != null;
+            boolean newHasPinyin = PinyinIndex.normalizeQuery(newKeyword) != null;
+            return (hasText || !newHasText) && (hasPinyin || !newHasPinyin);
+        }
+
+        @NonNull
+        Snapshot refine(@NonNull String newKeyword) {
+            List<List<String>> phrases = RecipeSearchIndex.queryPhrases(newKeyword);
+            List<TextHit> texts = new ArrayList<>();
+            for (TextHit hit : textHits) {
+                if (RecipeSearchIndex.matches(phrases, hit.name, hit.ingredient, hit.steps)) {
+                    texts.add(hit.withNameHit(RecipeSearchIndex.matches(phrases, hit.name)));
+                }
+            }
+            texts.sort(TEXT_ORDER);
+            String prefix = PinyinIndex.normalizeQuery(newKeyword);
+            List<PinyinHit> pinyins = new ArrayList<>();
+            if (prefix != null) {
+                for (PinyinHit hit : pinyinHits) {
+                    if (hit.matches(prefix)) {
+                        pinyins.add(hit);
+                    }
+                }
+            }
+            return new Snapshot(newKeyword, !phrases.isEmpty(), prefix != null, texts, pinyins, true);
+        }
+
+        @NonNull
+        List<RecipeSummary> toResults() {
+            Map<Long, RecipeSummary> results = new LinkedHashMap<>();
+            for (TextHit hit : textHits) {
+                results.put(hit.summary.getId(), hit.summary);
+            }
+            for (PinyinHit hit : pinyinHits) {
+                results.putIfAbsent(hit.summary.getId(), hit.summary);
+            }
+            return new ArrayList<>(results.values());
+        }
+    }
+
+    private static final class TextHit {
+        final RecipeSummary summary;
+        final String[] name;
+        final String[] ingredient;
+        final String[] steps;
+        final boolean nameHit;
+
+        TextHit(@NonNull RecipeSummary summary, @NonNull String[] name, @NonNull String[] ingredient,
+                @NonNull String[] steps, boolean nameHit) {
+            this.summary = summary;
+            this.name = name;
+            this.ingredient = ingredient;
+            this.steps = steps;
+            this.nameHit = nameHit;
+        }
+
+        @NonNull
+        TextHit withNameHit(boolean nameHit) {
+            return nameHit == this.nameHit ? this : new TextHit(summary, name, ingredient, steps, nameHit);
+        }
+    }
+
+    private static final class PinyinHit {
+        final RecipeSummary summary;
+        // 该菜谱所有全拼与首字母
+        final String[] pinyin;
+
+        PinyinHit(@NonNull RecipeSummary summary, @NonNull String[] pinyin) {
+            this.summary = summary;
+            this.pinyin = pinyin;
+        }
+
+        boolean matches(@NonNull String prefix) {
+            for (String value : pinyin) {
+                if (value.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.dogcuisine.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+/**
+ * 菜谱计数，由 recipes 表上的触发器维护（见 {@link RecipeStats}）。
+ * scope 取值：total / favorite（scope_id 为 0）、category（scope_id 为分类 id，未分类为 0）、rating（scope_id 为分值 0-5）
+ */
+@Entity(tableName = "recipe_stats",
+        primaryKeys = {"scope", "scope_id"})
+public class RecipeStatEntity {
+
+    @ColumnInfo(name = "scope")
+    @NonNull
+    private String scope;
+
+    @ColumnInfo(name = "scope_id")
+    private long scopeId;
+
+    @ColumnInfo(name = "count")
+    private long count;
+
+    public RecipeStatEntity(@NonNull String scope, long scopeId, long count) {
+        this.scope = scope;
+        this.scopeId = scopeId;
+        this.count = count;
+    }
+
+    @NonNull
+    public String getScope() {
+        return scope;
+    }
+
+    public long getScopeId() {
+        return scopeId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
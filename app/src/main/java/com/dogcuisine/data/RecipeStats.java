@@ -0,0 +1,72 @@
+package com.dogcuisine.data;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * recipe_stats 的触发器定义与全量重建。
+ * <p>
+ * 注意 REPLACE 冲突策略删除旧行时不会触发 DELETE 触发器，因此已存在的菜谱必须用 UPDATE 保存，
+ * 见 {@link AppDatabase#saveRecipe}。
+ */
+final class RecipeStats {
+
+    private RecipeStats() {
+    }
+
+    static void createTriggers(@NonNull SupportSQLiteDatabase database) {
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS recipe_stats_after_insert AFTER INSERT ON recipes BEGIN " +
+                ensureRows("NEW") +
+                adjust("NEW", "+ 1", true) +
+                "END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS recipe_stats_after_delete AFTER DELETE ON recipes BEGIN " +
+                adjust("OLD", "- 1", true) +
+                "END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS recipe_stats_after_update " +
+                "AFTER UPDATE OF category_id, is_favorite, rating ON recipes BEGIN " +
+                ensureRows("NEW") +
+                adjust("OLD", "- 1", false) +
+                adjust("NEW", "+ 1", false) +
+                "END");
+    }
+
+    /**
+     * 按 recipes 表重新统计，供数据库迁移使用
+     */
+    static void rebuild(@NonNull SupportSQLiteDatabase database) {
+        database.execSQL("DELETE FROM recipe_stats");
+        database.execSQL("INSERT INTO recipe_stats (scope, scope_id, count) " +
+                "SELECT 'total', 0, COUNT(*) FROM recipes");
+        database.execSQL("INSERT INTO recipe_stats (scope, scope_id, count) " +
+                "SELECT 'favorite', 0, COUNT(*) FROM recipes WHERE is_favorite = 1");
+        database.execSQL("INSERT INTO recipe_stats (scope, scope_id, count) " +
+                "SELECT 'category', IFNULL(category_id, 0), COUNT(*) FROM recipes GROUP BY IFNULL(category_id, 0)");
+        database.execSQL("INSERT INTO recipe_stats (scope, scope_id, count) " +
+                "SELECT 'rating', rating, COUNT(*) FROM recipes GROUP BY rating");
+    }
+
+    @NonNull
+    private static String ensureRows(@NonNull String row) {
+        return "INSERT OR IGNORE INTO recipe_stats (scope, scope_id, count) VALUES " +
+                "('total', 0, 0), ('favorite', 0, 0), " +
+                "('category', IFNULL(" + row + ".category_id, 0), 0), " +
+                "('rating', " + row + ".rating, 0); ";
+    }
+
+    // 按主键逐项更新，每条语句都是单行索引查找
+    @NonNull
+    private static String adjust(@NonNull String row, @NonNull String delta, boolean includeTotal) {
+        StringBuilder sb = new StringBuilder();
+        if (includeTotal) {
+            sb.append("UPDATE recipe_stats SET count = count ").append(delta)
+                    .append(" WHERE scope = 'total' AND scope_id = 0; ");
+        }
+        sb.append("UPDATE recipe_stats SET count = count ").append(delta)
+                .append(" WHERE scope = 'favorite' AND scope_id = 0 AND ").append(row).append(".is_favorite = 1; ");
+        sb.append("UPDATE recipe_stats SET count = count ").append(delta)
+                .append(" WHERE scope = 'category' AND scope_id = IFNULL(").append(row).append(".category_id, 0); ");
+        sb.append("UPDATE recipe_stats SET count = count ").append(delta)
+                .append(" WHERE scope = 'rating' AND scope_id = ").append(row).append(".rating; ");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,26 @@
+package com.dogcuisine.data;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import java.util.List;
+
+// 计数行按需创建，不存在时视为 0
+@Dao
+public interface RecipeStatsDao {
+
+    @Query("SELECT IFNULL((SELECT count FROM recipe_stats WHERE scope = 'total' AND scope_id = 0), 0)")
+    long getTotalCount();
+
+    @Query("SELECT IFNULL((SELECT count FROM recipe_stats WHERE scope = 'favorite' AND scope_id = 0), 0)")
+    long getFavoriteCount();
+
+    @Query("SELECT IFNULL((SELECT count FROM recipe_stats WHERE scope = 'category' AND scope_id = :categoryId), 0)")
+    long getCategoryCount(long categoryId);
+
+    @Query("SELECT IFNULL((SELECT count FROM recipe_stats WHERE scope = 'rating' AND scope_id = :rating), 0)")
+    long getRatingCount(int rating);
+
+    @Query("SELECT * FROM recipe_stats WHERE scope = 'category'")
+    List<RecipeStatEntity> getCategoryCounts();
+}
@@ -0,0 +1,32 @@
+package com.dogcuisine.data;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface RecipeStepDao {
+
+    // 单条语句读出步骤和图片，本身就是一致的快照，不必开事务占用写连接
+    String STEP_ROWS_QUERY = "SELECT s.position, s.step_text, i.path FROM recipe_steps s " +
+            "LEFT JOIN recipe_images i ON i.recipe_id = s.recipe_id AND i.step_position = s.position " +
+            "WHERE s.recipe_id = :recipeId ORDER BY s.position, i.position";
+
+    @Query(STEP_ROWS_QUERY)
+    List<RecipeStepRow> getStepRows(long recipeId);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertSteps(List<RecipeStepEntity> steps);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertImages(List<RecipeImageEntity> images);
+
+    @Query("DELETE FROM recipe_steps WHERE recipe_id = :recipeId")
+    void deleteSteps(long recipeId);
+
+    @Query("DELETE FROM recipe_images WHERE recipe_id = :recipeId")
+    void deleteImages(long recipeId);
+}
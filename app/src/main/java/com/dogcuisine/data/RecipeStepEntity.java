@@ -0,0 +1,43 @@
+package com.dogcuisine.data;
+
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+/**
+ * 菜谱步骤，每个步骤一行，图片见 {@link RecipeImageEntity}
+ */
+@Entity(tableName = "recipe_steps",
+        primaryKeys = {"recipe_id", "position"})
+public class RecipeStepEntity {
+
+    @ColumnInfo(name = "recipe_id")
+    private long recipeId;
+
+    // 步骤序号，从 0 开始
+    @ColumnInfo(name = "position")
+    private int position;
+
+    @ColumnInfo(name = "step_text")
+    @Nullable
+    private String stepText;
+
+    public RecipeStepEntity(long recipeId, int position, @Nullable String stepText) {
+        this.recipeId = recipeId;
+        this.position = position;
+        this.stepText = stepText;
+    }
+
+    public long getRecipeId() {
+        return recipeId;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    @Nullable
+    public String getStepText() {
+        return stepText;
+    }
+}
@@ -0,0 +1,41 @@
+package com.dogcuisine.data;
+
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+
+/**
+ * 步骤与图片联表读取的一行：没有图片的步骤占一行，path 为 null；有图片的步骤每张图片一行
+ */
+public class RecipeStepRow {
+
+    @ColumnInfo(name = "position")
+    private int position;
+
+    @ColumnInfo(name = "step_text")
+    @Nullable
+    private String stepText;
+
+    @ColumnInfo(name = "path")
+    @Nullable
+    private String path;
+
+    public RecipeStepRow(int position, @Nullable String stepText, @Nullable String path) {
+        this.position = position;
+        this.stepText = stepText;
+        this.path = path;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    @Nullable
+    public String getStepText() {
+        return stepText;
+    }
+
+    @Nullable
+    public String getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,114 @@
+package com.dogcuisine.data;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StepItem 列表与 recipe_steps / recipe_images 行之间的转换
+ */
+public final class RecipeSteps {
+
+    private RecipeSteps() {
+    }
+
+    @NonNull
+    public static List<RecipeStepEntity> toStepRows(long recipeId, @NonNull List<StepItem> steps) {
+        List<RecipeStepEntity> rows = new ArrayList<>(steps.size());
+        for (int i = 0; i < steps.size(); i++) {
+            StepItem step = steps.get(i);
+            rows.add(new RecipeStepEntity(recipeId, i, step != null ? step.getText() : null));
+        }
+        return rows;
+    }
+
+    @NonNull
+    public static List<RecipeImageEntity> toImageRows(long recipeId, @NonNull List<StepItem> steps) {
+        List<RecipeImageEntity> rows = new ArrayList<>();
+        for (int i = 0; i < steps.size(); i++) {
+            StepItem step = steps.get(i);
+            if (step == null) {
+                continue;
+            }
+            int position = 0;
+            for (String path : step.getImagePaths()) {
+                if (path != null && !path.isEmpty()) {
+                    rows.add(new RecipeImageEntity(recipeId, i, position++, path));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 把步骤与图片的联表行还原为 StepItem 列表，行需按步骤序号、图片序号升序
+     */
+    @NonNull
+    public static List<StepItem> fromRows(@NonNull List<RecipeStepRow> rows) {
+        List<StepItem> items = new ArrayList<>();
+        StepItem current = null;
+        int currentPosition = -1;
+        for (RecipeStepRow row : rows) {
+            if (current == null || row.getPosition() != currentPosition) {
+                current = new StepItem();
+                current.setText(row.getStepText());
+                currentPosition = row.getPosition();
+                items.add(current);
+            }
+            if (row.getPath() != null) {
+                current.addImagePath(row.getPath());
+            }
+        }
+        return items;
+    }
+
+    /**
+     * 读取菜谱食材：优先使用二进制列，旧数据回退解析 ingredient_json，下次保存时转为二进制
+     */
+    @NonNull
+    public static StepItem readIngredient(@NonNull RecipeEntity recipe) {
+        StepItem ingredient = recipe.getIngredient();
+        return ingredient != null ? ingredient : parseIngredient(recipe.getIngredientJson());
+    }
+
+    /**
+     * 解析 ingredient_json（文字 + 多图），内容为空或格式错误时返回空对象
+     */
+    @NonNull
+    static StepItem parseIngredient(@Nullable String json) {
+        return StepCodec.getInstance().decodeItem(json);
+    }
+
+    /**
+     * 解析旧版 steps_json，仅供迁移使用
+     */
+    @NonNull
+    static List<StepItem> parseLegacyJson(@Nullable String json) {
+        return StepCodec.getInstance().decodeList(json);
+    }
+
+    /**
+     * 把 recipes.steps_json 拆分写入 recipe_steps / recipe_images，供数据库迁移使用
+     */
+    static void explodeLegacyJson(@NonNull SupportSQLiteDatabase database) {
+        try (Cursor cursor = database.query("SELECT id, steps_json FROM recipes")) {
+            while (cursor.moveToNext()) {
+                long recipeId = cursor.getLong(0);
+                List<StepItem> steps = parseLegacyJson(cursor.isNull(1) ? null : cursor.getString(1));
+                for (RecipeStepEntity row : toStepRows(recipeId, steps)) {
+                    database.execSQL("INSERT OR REPLACE INTO recipe_steps (recipe_id, position, step_text) VALUES (?, ?, ?)",
+                            new Object[]{row.getRecipeId(), row.getPosition(), row.getStepText()});
+                }
+                for (RecipeImageEntity row : toImageRows(recipeId, steps)) {
+                    database.execSQL("INSERT OR REPLACE INTO recipe_images (recipe_id, step_position, position, path) VALUES (?, ?, ?, ?)",
+                            new Object[]{row.getRecipeId(), row.getStepPosition(), row.getPosition(), row.getPath()});
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.dogcuisine.data;
+
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+
+/**
+ * 菜谱列表投影：只包含列表展示所需的列，不读取 steps_json / ingredient_json / content 等大文本列
+ */
+public class RecipeSummary {
+
+    @ColumnInfo(name = "id")
+    private Long id;
+
+    @ColumnInfo(name = "name")
+    private String name;
+
+    @ColumnInfo(name = "updated_at")
+    private long updatedAt;
+
+    @ColumnInfo(name = "cover_image_path")
+    @Nullable
+    private String coverImagePath;
+
+    public RecipeSummary(Long id, String name, long updatedAt, @Nullable String coverImagePath) {
+        this.id = id;
+        this.name = name;
+        this.updatedAt = updatedAt;
+        this.coverImagePath = coverImagePath;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @Nullable
+    public String getCoverImagePath() {
+        return coverImagePath;
+    }
+}
@@ -0,0 +1,129 @@
+package com.dogcuisine.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 检索分词：FTS 自带分词器会把连续汉字当成一个词，这里把中日韩字符串切成二元组后再交给 FTS。
+ * <p>
+ * 索引时长度为 n 的汉字串输出 n-1 个相邻二元组，再追加末字单字，保证每个字都是某个词的首字：
+ * “番茄炒蛋” → “番茄 茄炒 炒蛋 蛋”。查询时按同样规则切分并组成短语，
+ * 单字查询走前缀匹配，因此任意子串都能命中，与原先 LIKE '%kw%' 的语义一致。
+ */
+public final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * 生成写入 FTS 的文本，词之间以空格分隔
+     */
+    @NonNull
+    public static String segmentForIndex(@Nullable String text) {
+        List<String> tokens = new ArrayList<>();
+        List<Chunk> chunks = split(text);
+        for (Chunk chunk : chunks) {
+            appendChunkTokens(tokens, chunk, true);
+        }
+        return join(tokens);
+    }
+
+    /**
+     * 把一个查询词切成 FTS 短语内的词序列，末尾词需要做前缀匹配
+     */
+    @NonNull
+    public static List<String> segmentQueryTerm(@Nullable String term) {
+        List<String> tokens = new ArrayList<>();
+        List<Chunk> chunks = split(term);
+        for (int i = 0; i < chunks.size(); i++) {
+            // 查询末尾的汉字串可能只是文档中更长串的前缀，不追加末字单字
+            appendChunkTokens(tokens, chunks.get(i), i < chunks.size() - 1);
+        }
+        return tokens;
+    }
+
+    private static void appendChunkTokens(@NonNull List<String> out, @NonNull Chunk chunk, boolean withTail) {
+        if (!chunk.cjk) {
+            out.add(chunk.text);
+            return;
+        }
+        int[] codePoints = chunk.text.codePoints().toArray();
+        if (codePoints.length == 1) {
+            out.add(chunk.text);
+            return;
+        }
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            out.add(new String(codePoints, i, 2));
+        }
+        if (withTail) {
+            out.add(new String(codePoints, codePoints.length - 1, 1));
+        }
+    }
+
+    @NonNull
+    private static List<Chunk> split(@Nullable String text) {
+        List<Chunk> chunks = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return chunks;
+        }
+        StringBuilder current = new StringBuilder();
+        boolean currentCjk = false;
+        int offset = 0;
+        while (offset < text.length()) {
+            int cp = text.codePointAt(offset);
+            offset += Character.charCount(cp);
+            boolean cjk = isCjk(cp);
+            if (!cjk && !Character.isLetterOrDigit(cp)) {
+                flush(chunks, current, currentCjk);
+                continue;
+            }
+            if (current.length() > 0 && cjk != currentCjk) {
+                flush(chunks, current, currentCjk);
+            }
+            currentCjk = cjk;
+            current.appendCodePoint(cp);
+        }
+        flush(chunks, current, currentCjk);
+        return chunks;
+    }
+
+    private static void flush(@NonNull List<Chunk> chunks, @NonNull StringBuilder current, boolean cjk) {
+        if (current.length() > 0) {
+            chunks.add(new Chunk(current.toString(), cjk));
+            current.setLength(0);
+        }
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    @NonNull
+    private static String join(@NonNull List<String> tokens) {
+        StringBuilder sb = new StringBuilder();
+        for (String token : tokens) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(token);
+        }
+        return sb.toString();
+    }
+
+    private static final class Chunk {
+        final String text;
+        final boolean cjk;
+
+        Chunk(@NonNull String text, boolean cjk) {
+            this.text = text;
+            this.cjk = cjk;
+        }
+    }
+}
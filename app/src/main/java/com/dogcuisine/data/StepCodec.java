@@ -0,0 +1,169 @@
+package com.dogcuisine.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StepItem 的 JSON 编解码：手写流式 TypeAdapter，不经过 Gson 反射，
+ * 直接向 StepItem 追加图片路径，不产生中间列表拷贝。
+ * <p>
+ * 字段名与 Gson 默认序列化一致（text / imagePaths），可读取旧数据。进程内共用一个实例，
+ * 数据库迁移也会用到，因此不依赖 Application。
+ */
+public final class StepCodec {
+
+    private static final StepCodec INSTANCE = new StepCodec();
+
+    private final TypeAdapter<StepItem> itemAdapter = new StepItemAdapter();
+    private final TypeAdapter<List<StepItem>> listAdapter = new StepListAdapter(itemAdapter);
+
+    private StepCodec() {
+    }
+
+    @NonNull
+    public static StepCodec getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 解析单个条目，内容为空或格式错误时返回空对象
+     */
+    @NonNull
+    public StepItem decodeItem(@Nullable String json) {
+        if (json == null || json.isEmpty()) {
+            return new StepItem();
+        }
+        try {
+            StepItem item = itemAdapter.fromJson(json);
+            return item != null ? item : new StepItem();
+        } catch (IOException | RuntimeException e) {
+            return new StepItem();
+        }
+    }
+
+    /**
+     * 解析条目列表，内容为空或格式错误时返回空列表
+     */
+    @NonNull
+    public List<StepItem> decodeList(@Nullable String json) {
+        if (json == null || json.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            List<StepItem> items = listAdapter.fromJson(json);
+            return items != null ? items : new ArrayList<>();
+        } catch (IOException | RuntimeException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    @NonNull
+    public String encodeItem(@NonNull StepItem item) {
+        return itemAdapter.toJson(item);
+    }
+
+    @NonNull
+    public String encodeList(@NonNull List<StepItem> items) {
+        return listAdapter.toJson(items);
+    }
+
+    private static final class StepItemAdapter extends TypeAdapter<StepItem> {
+
+        @Override
+        public void write(JsonWriter out, StepItem item) throws IOException {
+            if (item == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (item.getText() != null) {
+                out.name("text").value(item.getText());
+            }
+            out.name("imagePaths").beginArray();
+            for (String path : item.getImagePaths()) {
+                out.value(path);
+            }
+            out.endArray();
+            out.endObject();
+        }
+
+        @Override
+        public StepItem read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            StepItem item = new StepItem();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if ("text".equals(name) && in.peek() != JsonToken.NULL) {
+                    item.setText(in.nextString());
+                } else if ("imagePaths".equals(name) && in.peek() == JsonToken.BEGIN_ARRAY) {
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else {
+                            item.addImagePath(in.nextString());
+                        }
+                    }
+                    in.endArray();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return item;
+        }
+    }
+
+    private static final class StepListAdapter extends TypeAdapter<List<StepItem>> {
+
+        private final TypeAdapter<StepItem> itemAdapter;
+
+        StepListAdapter(@NonNull TypeAdapter<StepItem> itemAdapter) {
+            this.itemAdapter = itemAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, List<StepItem> items) throws IOException {
+            if (items == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginArray();
+            for (StepItem item : items) {
+                itemAdapter.write(out, item);
+            }
+            out.endArray();
+        }
+
+        @Override
+        public List<StepItem> read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            List<StepItem> items = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                StepItem item = itemAdapter.read(in);
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+            in.endArray();
+            return items;
+        }
+    }
+}
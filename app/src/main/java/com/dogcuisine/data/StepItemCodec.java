@@ -0,0 +1,156 @@
+package com.dogcuisine.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StepItem 的紧凑二进制编码，替代 Gson 反射解析。
+ * <p>
+ * 格式：首字节为版本号，之后依次为条目数与各条目；条目由文字与图片路径列表组成。
+ * 长度与数量均为无符号 varint，字符串为长度前缀的 UTF-8；文字长度写入 len + 1，0 表示 null。
+ */
+public final class StepItemCodec {
+
+    static final int VERSION_1 = 1;
+
+    private StepItemCodec() {
+    }
+
+    @NonNull
+    public static byte[] encode(@NonNull StepItem item) {
+        List<StepItem> items = new ArrayList<>(1);
+        items.add(item);
+        return encodeList(items);
+    }
+
+    @NonNull
+    public static byte[] encodeList(@NonNull List<StepItem> items) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(VERSION_1);
+        writeVarint(out, items.size());
+        for (StepItem item : items) {
+            String text = item != null ? item.getText() : null;
+            if (text == null) {
+                writeVarint(out, 0);
+            } else {
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                writeVarint(out, bytes.length + 1);
+                out.write(bytes, 0, bytes.length);
+            }
+            List<String> paths = item != null ? item.getImagePaths() : new ArrayList<>();
+            writeVarint(out, paths.size());
+            for (String path : paths) {
+                byte[] bytes = (path != null ? path : "").getBytes(StandardCharsets.UTF_8);
+                writeVarint(out, bytes.length);
+                out.write(bytes, 0, bytes.length);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 解码单个条目，数据为空时返回空对象
+     *
+     * @throws IllegalArgumentException 版本未知、数据截断、数量非法或末尾有多余字节
+     */
+    @NonNull
+    public static StepItem decode(@Nullable byte[] data) {
+        List<StepItem> items = decodeList(data);
+        return items.isEmpty() ? new StepItem() : items.get(0);
+    }
+
+    /**
+     * @throws IllegalArgumentException 版本未知、数据截断、数量非法或末尾有多余字节
+     */
+    @NonNull
+    public static List<StepItem> decodeList(@Nullable byte[] data) {
+        if (data == null || data.length == 0) {
+            return new ArrayList<>();
+        }
+        Reader reader = new Reader(data);
+        int version = reader.readByte();
+        if (version != VERSION_1) {
+            throw new IllegalArgumentException("Unsupported step codec version: " + version);
+        }
+        int count = reader.readCount();
+        // 每个条目至少占两个字节，按剩余长度限制预分配，损坏的数量不会导致超大分配
+        List<StepItem> items = new ArrayList<>(Math.min(count, reader.remaining() / 2));
+        for (int i = 0; i < count; i++) {
+            StepItem item = new StepItem();
+            int textLength = reader.readVarint();
+            item.setText(textLength == 0 ? null : reader.readString(textLength - 1));
+            int pathCount = reader.readCount();
+            for (int p = 0; p < pathCount; p++) {
+                item.addImagePath(reader.readString(reader.readVarint()));
+            }
+            items.add(item);
+        }
+        if (reader.remaining() > 0) {
+            throw new IllegalArgumentException("Trailing step data");
+        }
+        return items;
+    }
+
+    private static void writeVarint(@NonNull ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int offset;
+
+        Reader(@NonNull byte[] data) {
+            this.data = data;
+        }
+
+        int readByte() {
+            if (offset >= data.length) {
+                throw new IllegalArgumentException("Truncated step data");
+            }
+            return data[offset++] & 0xFF;
+        }
+
+        int readVarint() {
+            int result = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        int readCount() {
+            int count = readVarint();
+            if (count < 0) {
+                throw new IllegalArgumentException("Malformed step count");
+            }
+            return count;
+        }
+
+        int remaining() {
+            return data.length - offset;
+        }
+
+        @NonNull
+        String readString(int length) {
+            if (length < 0 || length > data.length - offset) {
+                throw new IllegalArgumentException("Truncated step data");
+            }
+            String value = new String(data, offset, length, StandardCharsets.UTF_8);
+            offset += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.dogcuisine.data;
+
+import androidx.annotation.Nullable;
+import androidx.room.TypeConverter;
+
+/**
+ * Room 类型转换：StepItem 以 {@link StepItemCodec} 二进制格式存为 BLOB
+ */
+public class StepItemConverters {
+
+    @TypeConverter
+    @Nullable
+    public static byte[] fromStepItem(@Nullable StepItem item) {
+        return item == null ? null : StepItemCodec.encode(item);
+    }
+
+    // 无法解码时按缺失处理，调用方回退到旧 JSON 列
+    @TypeConverter
+    @Nullable
+    public static StepItem toStepItem(@Nullable byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return StepItemCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
@@ -2,13 +2,9 @@ package com.dogcuisine.ui
 
 import android.content.Context
 import android.content.Intent
-import android.graphics.Bitmap
-import android.graphics.BitmapFactory
 import android.graphics.Color
-import android.graphics.Matrix
 import android.graphics.drawable.AnimatedImageDrawable
 import android.graphics.drawable.ColorDrawable
-import android.media.ExifInterface
 import android.net.Uri
 import android.os.Bundle
 import android.util.TypedValue
@@ -58,6 +54,7 @@ import androidx.compose.foundation.shape.CircleShape
 import androidx.compose.foundation.shape.RoundedCornerShape
 import androidx.compose.material3.Card
 import androidx.compose.material3.CardDefaults
+import androidx.compose.material3.CircularProgressIndicator
 import androidx.compose.material3.ExperimentalMaterial3Api
 import androidx.compose.material3.ExposedDropdownMenuBox
 import androidx.compose.material3.ExposedDropdownMenuDefaults
@@ -74,8 +71,10 @@ import androidx.compose.material3.TopAppBarDefaults
 import androidx.compose.runtime.Composable
 import androidx.compose.runtime.LaunchedEffect
 import androidx.compose.runtime.getValue
+import androidx.compose.runtime.mutableFloatStateOf
 import androidx.compose.runtime.mutableIntStateOf
 import androidx.compose.runtime.mutableStateListOf
+import androidx.compose.runtime.mutableStateMapOf
 import androidx.compose.runtime.mutableStateOf
 import androidx.compose.runtime.remember
 import androidx.compose.runtime.setValue
@@ -92,6 +91,7 @@ import androidx.compose.ui.res.painterResource
 import androidx.compose.ui.res.stringResource
 import androidx.compose.ui.text.font.FontWeight
 import androidx.compose.ui.text.style.TextOverflow
+import androidx.compose.ui.unit.Dp
 import androidx.compose.ui.unit.dp
 import androidx.compose.ui.unit.sp
 import androidx.core.content.ContextCompat
@@ -99,37 +99,37 @@ import coil.compose.AsyncImage
 import coil.request.ImageRequest
 import com.dogcuisine.App
 import com.dogcuisine.R
+import com.dogcuisine.TaskPriority
+import com.dogcuisine.TaskScope
 import com.dogcuisine.data.CategoryDao
 import com.dogcuisine.data.CategoryEntity
 import com.dogcuisine.data.LevelConfig
-import com.dogcuisine.data.RecipeDao
 import com.dogcuisine.data.RecipeEntity
+import com.dogcuisine.data.RecipeStatsDao
 import com.dogcuisine.data.StepItem
 import com.dogcuisine.data.UserProfileDao
 import com.dogcuisine.data.UserProfileEntity
 import com.google.android.material.bottomsheet.BottomSheetBehavior
 import com.google.android.material.bottomsheet.BottomSheetDialog
-import com.google.gson.Gson
-import com.google.gson.reflect.TypeToken
 import kotlinx.coroutines.delay
 import sh.calvin.reorderable.ReorderableItem
 import sh.calvin.reorderable.rememberReorderableLazyListState
-import java.io.ByteArrayOutputStream
 import java.io.File
-import java.io.FileOutputStream
-import java.util.concurrent.ExecutorService
 import kotlin.math.roundToInt
 import android.app.Dialog as AndroidDialog
 import androidx.compose.ui.graphics.Color as ComposeColor
 
+/**
+ * 导入中的图片占位，progress 为 0..1
+ */
+private class ImportSlot {
+    var progress by mutableFloatStateOf(0f)
+}
+
 class AddRecipeActivity : AppCompatActivity() {
 
     companion object {
         private const val EXTRA_RECIPE_ID = "recipe_id"
-        private const val MAX_IMAGE_LONG_EDGE = 1600
-        private const val TARGET_IMAGE_BYTES = 600 * 1024
-        private const val JPEG_QUALITY_START = 85
-        private const val JPEG_QUALITY_MIN = 65
 
         fun createIntent(context: Context): Intent {
             return Intent(context, AddRecipeActivity::class.java)
@@ -141,11 +141,11 @@ class AddRecipeActivity : AppCompatActivity() {
         }
     }
 
-    private lateinit var ioExecutor: ExecutorService
-    private lateinit var recipeDao: RecipeDao
+    private lateinit var tasks: TaskScope
     private lateinit var categoryDao: CategoryDao
     private lateinit var userProfileDao: UserProfileDao
-    private val gson = Gson()
+    private lateinit var recipeStatsDao: RecipeStatsDao
+    private lateinit var imageImporter: ImageImporter
 
     private var recipeName by mutableStateOf("")
     private var coverPath by mutableStateOf<String?>(null)
@@ -160,6 +160,9 @@ class AddRecipeActivity : AppCompatActivity() {
     private val stepStableKeys = mutableStateListOf<Long>()
     private var nextStepStableKey = 0L
     private val categoryOptions = mutableStateListOf<CategoryEntity>()
+    // 导入中的图片占位：食材一组，步骤按步骤的稳定 key 分组，步骤移动或删除后仍能找到目标
+    private val ingredientImports = mutableStateListOf<ImportSlot>()
+    private val stepImports = mutableStateMapOf<Long, List<ImportSlot>>()
 
     private var previewImagePath by mutableStateOf<String?>(null)
     private var scrollToBottomToken by mutableIntStateOf(0)
@@ -178,10 +181,11 @@ class AddRecipeActivity : AppCompatActivity() {
         ComposeSystemBarDelegate.install(this)
 
         val app = App.getInstance()
-        ioExecutor = app.ioExecutor()
-        recipeDao = app.getDatabase().recipeDao()
+        tasks = app.executors().scope(this)
         categoryDao = app.getDatabase().categoryDao()
         userProfileDao = app.getDatabase().userProfileDao()
+        recipeStatsDao = app.getDatabase().recipeStatsDao()
+        imageImporter = ImageImporter(this, app.executors().image())
 
         registerPickers()
 
@@ -211,8 +215,10 @@ class AddRecipeActivity : AppCompatActivity() {
                     rating = editingRating,
                     ingredientText = ingredientText,
                     ingredientImages = ingredientImages,
+                    ingredientImports = ingredientImports,
                     steps = steps,
                     stepKeys = stepStableKeys,
+                    stepImports = stepImports,
                     scrollToBottomToken = scrollToBottomToken,
                     isSaving = isSaving,
                     onBack = { finish() },
@@ -284,10 +290,12 @@ class AddRecipeActivity : AppCompatActivity() {
             if (raw.isNullOrEmpty()) {
                 return@registerForActivityResult
             }
-            val uri = Uri.parse(raw)
-            val path = copyAndCompressCroppedCover(uri)
-            if (!path.isNullOrEmpty()) {
-                coverPath = path
+            imageImporter.importCover(Uri.parse(raw)) { path ->
+                if (path.isNullOrEmpty()) {
+                    showImageFailedToast()
+                } else if (!isDestroyed) {
+                    coverPath = path
+                }
             }
         }
 
@@ -296,28 +304,62 @@ class AddRecipeActivity : AppCompatActivity() {
                 val stepIndex = pendingStepIndex
                 pendingStepIndex = -1
                 if (stepIndex !in steps.indices || uris.isNullOrEmpty()) return@registerForActivityResult
-                val copiedPaths = uris.mapNotNull { uri ->
-                    copyAndCompressImage(uri, "step$stepIndex")
-                }
-                if (copiedPaths.isEmpty()) return@registerForActivityResult
-                val current = steps[stepIndex]
-                val mergedPaths = ArrayList(current.imagePaths ?: emptyList())
-                mergedPaths.addAll(copiedPaths)
-                steps[stepIndex] = StepItem(current.text, mergedPaths)
+                val stepKey = stepStableKeys[stepIndex]
+                val slots = uris.map { ImportSlot() }
+                stepImports[stepKey] = stepImports[stepKey].orEmpty() + slots
+                imageImporter.importAll(
+                    uris = uris,
+                    prefix = "step$stepIndex",
+                    onProgress = { index, progress -> slots[index].progress = progress },
+                    onComplete = { paths, failed ->
+                        val remaining = stepImports[stepKey].orEmpty() - slots.toSet()
+                        if (remaining.isEmpty()) stepImports.remove(stepKey) else stepImports[stepKey] = remaining
+                        onImportFinished(failed)
+                        // 导入期间步骤可能被移动或删除，按稳定 key 重新定位
+                        val index = stepStableKeys.indexOf(stepKey)
+                        if (index < 0 || paths.isEmpty()) return@importAll
+                        val current = steps[index]
+                        val mergedPaths = ArrayList(current.imagePaths ?: emptyList())
+                        mergedPaths.addAll(paths)
+                        steps[index] = StepItem(current.text, mergedPaths)
+                    }
+                )
             }
 
         ingredientImagesPicker =
             registerForActivityResult(ActivityResultContracts.OpenMultipleDocuments()) { uris ->
                 if (uris.isNullOrEmpty()) return@registerForActivityResult
-                val copiedPaths = uris.mapNotNull { uri ->
-                    copyAndCompressImage(uri, "ingredient")
-                }
-                if (copiedPaths.isNotEmpty()) {
-                    ingredientImages.addAll(copiedPaths)
-                }
+                val slots = uris.map { ImportSlot() }
+                ingredientImports.addAll(slots)
+                imageImporter.importAll(
+                    uris = uris,
+                    prefix = "ingredient",
+                    onProgress = { index, progress -> slots[index].progress = progress },
+                    onComplete = { paths, failed ->
+                        ingredientImports.removeAll(slots)
+                        onImportFinished(failed)
+                        ingredientImages.addAll(paths)
+                    }
+                )
             }
     }
 
+    private fun onImportFinished(failed: Int) {
+        if (failed > 0) {
+            showImageFailedToast()
+        }
+    }
+
+    private fun showImageFailedToast() {
+        if (!isDestroyed) {
+            Toast.makeText(this, getString(R.string.image_process_failed_toast), Toast.LENGTH_SHORT).show()
+        }
+    }
+
+    private fun isImporting(): Boolean {
+        return ingredientImports.isNotEmpty() || stepImports.isNotEmpty()
+    }
+
     private fun pickCover() {
         coverPicker.launch(arrayOf("image/*"))
     }
@@ -420,6 +462,10 @@ class AddRecipeActivity : AppCompatActivity() {
 
     private fun saveRecipe() {
         if (isSaving) return
+        if (isImporting()) {
+            Toast.makeText(this, getString(R.string.image_importing_toast), Toast.LENGTH_SHORT).show()
+            return
+        }
         val name = recipeName.trim()
         if (name.isEmpty()) {
             Toast.makeText(this, getString(R.string.recipe_name_required_toast), Toast.LENGTH_SHORT).show()
@@ -428,15 +474,13 @@ class AddRecipeActivity : AppCompatActivity() {
         isSaving = true
 
         val now = System.currentTimeMillis()
-        val ingredientJson = gson.toJson(
-            StepItem(ingredientText, ArrayList(ingredientImages))
-        )
-        val stepsJson = gson.toJson(steps)
+        val ingredientSnapshot = StepItem(ingredientText, ArrayList(ingredientImages))
+        val stepsSnapshot = steps.map { StepItem(it.text, ArrayList(it.imagePaths)) }
         val editingIdSnapshot = editingId
         val existingCreatedAtSnapshot = existingCreatedAt
         val coverPathSnapshot = coverPath
 
-        ioExecutor.execute {
+        tasks.write().execute {
             try {
                 var categoryId = selectedCategoryId
                 if (categoryId == null) {
@@ -451,8 +495,8 @@ class AddRecipeActivity : AppCompatActivity() {
                         now,
                         "",
                         coverPathSnapshot,
-                        stepsJson,
-                        ingredientJson,
+                        null,
+                        "",
                         categoryId,
                         editingFavorite,
                         editingRating
@@ -465,14 +509,15 @@ class AddRecipeActivity : AppCompatActivity() {
                         now,
                         "",
                         coverPathSnapshot,
-                        stepsJson,
-                        ingredientJson,
+                        null,
+                        "",
                         categoryId,
                         0,
                         editingRating
                     )
                 }
-                App.getInstance().getDatabase().recipeDao().insert(entity)
+                entity.ingredient = ingredientSnapshot
+                App.getInstance().getDatabase().saveRecipe(entity, stepsSnapshot)
 
                 val levelUpName = if (editingIdSnapshot > 0L) null else checkLevelUpIfNeeded()
                 runOnUiThread {
@@ -501,28 +546,31 @@ class AddRecipeActivity : AppCompatActivity() {
     }
 
     private fun loadForEdit(id: Long) {
-        ioExecutor.execute {
-            val entity = recipeDao.getById(id)
+        tasks.read(TaskPriority.INTERACTIVE).execute {
+            // 从详情页进入时通常命中缓存
+            val detail = App.getInstance().getDatabase().recipeRepository().getRecipe(id)
             runOnUiThread {
-                if (entity == null) {
+                if (detail == null) {
                     Toast.makeText(this, getString(R.string.recipe_not_found_toast), Toast.LENGTH_SHORT).show()
                     finish()
                     return@runOnUiThread
                 }
+                val entity = detail.recipe
                 existingCreatedAt = entity.createdAt
                 selectedCategoryId = entity.categoryId
-                editingFavorite = entity.isFavorite
-                editingRating = entity.rating
+                // 详情页刚修改的收藏可能还在写入队列中
+                val flagWriter = App.getInstance().recipeFlagWriter()
+                editingFavorite = flagWriter.getPendingFavorite(id) ?: entity.isFavorite
+                editingRating = flagWriter.getPendingRating(id) ?: entity.rating
                 recipeName = entity.name.orEmpty()
                 coverPath = entity.coverImagePath
 
-                val loadedIngredient = parseIngredient(entity.ingredientJson)
+                val loadedIngredient = detail.ingredient
                 ingredientText = loadedIngredient.text.orEmpty()
                 ingredientImages.clear()
                 ingredientImages.addAll(loadedIngredient.imagePaths ?: emptyList())
 
-                val loadedSteps = parseSteps(entity.stepsJson)
-                resetSteps(loadedSteps)
+                resetSteps(detail.steps)
             }
         }
     }
@@ -542,7 +590,8 @@ class AddRecipeActivity : AppCompatActivity() {
     }
 
     private fun loadCategoriesForDropdown() {
-        ioExecutor.execute {
+        tasks.read(TaskPriority.INTERACTIVE).execute {
+            App.getInstance().awaitSeeded()
             val all = categoryDao.getAll() ?: emptyList()
             runOnUiThread {
                 categoryOptions.clear()
@@ -576,29 +625,10 @@ class AddRecipeActivity : AppCompatActivity() {
         }
     }
 
-    private fun parseSteps(json: String?): List<StepItem> {
-        if (json.isNullOrEmpty()) return emptyList()
-        return try {
-            val type = object : TypeToken<List<StepItem>>() {}.type
-            gson.fromJson<List<StepItem>>(json, type) ?: emptyList()
-        } catch (_: Exception) {
-            emptyList()
-        }
-    }
-
-    private fun parseIngredient(json: String?): StepItem {
-        if (json.isNullOrEmpty()) return StepItem()
-        return try {
-            gson.fromJson(json, StepItem::class.java) ?: StepItem()
-        } catch (_: Exception) {
-            StepItem()
-        }
-    }
-
     @Nullable
     private fun checkLevelUpIfNeeded(): String? {
         return try {
-            val recipeCount = recipeDao.count()
+            val recipeCount = recipeStatsDao.totalCount
             val levelNames = resources.getStringArray(R.array.level_names)
             val maxLevelIndex = minOf(levelNames.size, LevelConfig.size())
             fun levelNameAt(index: Int): String? {
@@ -701,178 +731,6 @@ class AddRecipeActivity : AppCompatActivity() {
         setResult(RESULT_OK)
         finish()
     }
-
-    @Nullable
-    private fun copyAndCompressImage(uri: Uri, prefix: String): String? {
-        return try {
-            val bitmap = decodeBitmapWithSample(uri, MAX_IMAGE_LONG_EDGE) ?: return null
-            val scaledBitmap = scaleBitmapIfNeeded(bitmap, MAX_IMAGE_LONG_EDGE)
-            val rotatedBitmap = rotateByExifIfNeeded(scaledBitmap, uri)
-            val compressed = compressToJpegBytes(rotatedBitmap)
-
-            val dir = File(filesDir, "images")
-            if (!dir.exists()) {
-                dir.mkdirs()
-            }
-            val fileName = "${prefix}_${System.currentTimeMillis()}.jpg"
-            val outFile = File(dir, fileName)
-            FileOutputStream(outFile).use { fos ->
-                fos.write(compressed)
-                fos.flush()
-            }
-
-            if (!rotatedBitmap.isRecycled) rotatedBitmap.recycle()
-            if (scaledBitmap !== rotatedBitmap && !scaledBitmap.isRecycled) scaledBitmap.recycle()
-            if (bitmap !== scaledBitmap && bitmap !== rotatedBitmap && !bitmap.isRecycled) bitmap.recycle()
-            outFile.absolutePath
-        } catch (e: Exception) {
-            e.printStackTrace()
-            runOnUiThread {
-                Toast.makeText(this, getString(R.string.image_process_failed_toast), Toast.LENGTH_SHORT).show()
-            }
-            null
-        }
-    }
-
-    @Nullable
-    private fun copyAndCompressCroppedCover(croppedUri: Uri): String? {
-        return try {
-            val bitmap = decodeBitmapWithSample(croppedUri, MAX_IMAGE_LONG_EDGE) ?: return null
-            val square = cropCenterSquareIfNeeded(bitmap)
-            val scaled = scaleBitmapIfNeeded(square, MAX_IMAGE_LONG_EDGE)
-            val compressed = compressToJpegBytes(scaled)
-
-            val dir = File(filesDir, "images")
-            if (!dir.exists()) {
-                dir.mkdirs()
-            }
-            val outFile = File(dir, "cover_${System.currentTimeMillis()}.jpg")
-            FileOutputStream(outFile).use { fos ->
-                fos.write(compressed)
-                fos.flush()
-            }
-
-            if (!scaled.isRecycled) scaled.recycle()
-            if (square !== scaled && !square.isRecycled) square.recycle()
-            if (bitmap !== square && bitmap !== scaled && !bitmap.isRecycled) bitmap.recycle()
-            outFile.absolutePath
-        } catch (e: Exception) {
-            e.printStackTrace()
-            runOnUiThread {
-                Toast.makeText(this, getString(R.string.image_process_failed_toast), Toast.LENGTH_SHORT).show()
-            }
-            null
-        }
-    }
-
-    @Nullable
-    @Throws(Exception::class)
-    private fun decodeBitmapWithSample(uri: Uri, maxLongEdge: Int): Bitmap? {
-        val bounds = BitmapFactory.Options().apply {
-            inJustDecodeBounds = true
-        }
-        contentResolver.openInputStream(uri).use { input ->
-            if (input == null) return null
-            BitmapFactory.decodeStream(input, null, bounds)
-        }
-        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
-            return null
-        }
-
-        val decode = BitmapFactory.Options().apply {
-            inPreferredConfig = Bitmap.Config.RGB_565
-            inSampleSize = computeInSampleSize(bounds.outWidth, bounds.outHeight, maxLongEdge)
-        }
-        return contentResolver.openInputStream(uri).use { input ->
-            if (input == null) return null
-            BitmapFactory.decodeStream(input, null, decode)
-        }
-    }
-
-    private fun computeInSampleSize(width: Int, height: Int, maxLongEdge: Int): Int {
-        var inSampleSize = 1
-        val longEdge = maxOf(width, height)
-        while (longEdge / inSampleSize > maxLongEdge * 2) {
-            inSampleSize *= 2
-        }
-        return maxOf(1, inSampleSize)
-    }
-
-    private fun scaleBitmapIfNeeded(source: Bitmap, maxLongEdge: Int): Bitmap {
-        val width = source.width
-        val height = source.height
-        val longEdge = maxOf(width, height)
-        if (longEdge <= maxLongEdge) {
-            return source
-        }
-        val ratio = maxLongEdge / longEdge.toFloat()
-        val targetW = maxOf(1, (width * ratio).roundToInt())
-        val targetH = maxOf(1, (height * ratio).roundToInt())
-        val scaled = Bitmap.createScaledBitmap(source, targetW, targetH, true)
-        if (scaled !== source) {
-            source.recycle()
-        }
-        return scaled
-    }
-
-    private fun rotateByExifIfNeeded(source: Bitmap, uri: Uri): Bitmap {
-        var orientation = ExifInterface.ORIENTATION_UNDEFINED
-        try {
-            contentResolver.openInputStream(uri).use { input ->
-                if (input != null) {
-                    val exif = ExifInterface(input)
-                    orientation = exif.getAttributeInt(
-                        ExifInterface.TAG_ORIENTATION,
-                        ExifInterface.ORIENTATION_NORMAL
-                    )
-                }
-            }
-        } catch (_: Exception) {
-        }
-
-        val matrix = Matrix()
-        when (orientation) {
-            ExifInterface.ORIENTATION_ROTATE_90 -> matrix.postRotate(90f)
-            ExifInterface.ORIENTATION_ROTATE_180 -> matrix.postRotate(180f)
-            ExifInterface.ORIENTATION_ROTATE_270 -> matrix.postRotate(270f)
-            else -> return source
-        }
-        val rotated = Bitmap.createBitmap(source, 0, 0, source.width, source.height, matrix, true)
-        if (rotated !== source) {
-            source.recycle()
-        }
-        return rotated
-    }
-
-    private fun compressToJpegBytes(bitmap: Bitmap): ByteArray {
-        val baos = ByteArrayOutputStream()
-        var quality = JPEG_QUALITY_START
-        while (true) {
-            baos.reset()
-            bitmap.compress(Bitmap.CompressFormat.JPEG, quality, baos)
-            if (baos.size() <= TARGET_IMAGE_BYTES || quality <= JPEG_QUALITY_MIN) {
-                break
-            }
-            quality -= 5
-        }
-        return baos.toByteArray()
-    }
-
-    private fun cropCenterSquareIfNeeded(source: Bitmap): Bitmap {
-        val width = source.width
-        val height = source.height
-        if (width <= 0 || height <= 0 || width == height) {
-            return source
-        }
-        val side = minOf(width, height)
-        val left = (width - side) / 2
-        val top = (height - side) / 2
-        val square = Bitmap.createBitmap(source, left, top, side, side)
-        if (square !== source) {
-            source.recycle()
-        }
-        return square
-    }
 }
 
 @OptIn(ExperimentalMaterial3Api::class, ExperimentalFoundationApi::class)
@@ -886,8 +744,10 @@ private fun AddRecipeScreen(
     rating: Int,
     ingredientText: String,
     ingredientImages: List<String>,
+    ingredientImports: List<ImportSlot>,
     steps: List<StepItem>,
     stepKeys: List<Long>,
+    stepImports: Map<Long, List<ImportSlot>>,
     scrollToBottomToken: Int,
     isSaving: Boolean,
     onBack: () -> Unit,
@@ -1028,6 +888,7 @@ private fun AddRecipeScreen(
                     IngredientCard(
                         text = ingredientText,
                         imagePaths = ingredientImages,
+                        importSlots = ingredientImports,
                         onTextClick = onIngredientTextClick,
                         onAddImages = onAddIngredientImages,
                         onImageClick = onIngredientImageClick,
@@ -1049,6 +910,7 @@ private fun AddRecipeScreen(
                         StepCard(
                             index = index,
                             step = step,
+                            importSlots = stepImports[stepItemKey].orEmpty(),
                             isDragging = isDragging,
                             onTextClick = { onStepTextClick(index, step.text.orEmpty()) },
                             onAddImages = { onAddStepImages(index) },
@@ -1089,6 +951,7 @@ private fun CoverSelector(
         if (!coverPath.isNullOrEmpty()) {
             LocalImage(
                 imagePath = coverPath,
+                size = 240.dp,
                 contentScale = ContentScale.Crop,
                 modifier = Modifier.fillMaxSize()
             )
@@ -1217,6 +1080,7 @@ private fun RatingSelector(
 private fun IngredientCard(
     text: String,
     imagePaths: List<String>,
+    importSlots: List<ImportSlot>,
     onTextClick: () -> Unit,
     onAddImages: () -> Unit,
     onImageClick: (String) -> Unit,
@@ -1237,6 +1101,7 @@ private fun IngredientCard(
             Spacer(modifier = Modifier.height(8.dp))
             ImageStrip(
                 imagePaths = imagePaths,
+                importSlots = importSlots,
                 onImageClick = onImageClick,
                 onImageDelete = onImageDelete
             )
@@ -1252,6 +1117,7 @@ private fun IngredientCard(
 private fun StepCard(
     index: Int,
     step: StepItem,
+    importSlots: List<ImportSlot>,
     isDragging: Boolean,
     onTextClick: () -> Unit,
     onAddImages: () -> Unit,
@@ -1300,6 +1166,7 @@ private fun StepCard(
             Spacer(modifier = Modifier.height(8.dp))
             ImageStrip(
                 imagePaths = step.imagePaths ?: emptyList(),
+                importSlots = importSlots,
                 onImageClick = onImageClick,
                 onImageDelete = onImageDelete
             )
@@ -1385,6 +1252,7 @@ private fun TextProxyField(
 @Composable
 private fun ImageStrip(
     imagePaths: List<String>,
+    importSlots: List<ImportSlot>,
     onImageClick: (String) -> Unit,
     onImageDelete: (String) -> Unit
 ) {
@@ -1404,6 +1272,35 @@ private fun ImageStrip(
                 onImageDelete = { onImageDelete(path) }
             )
         }
+        // 导入中的图片按选择顺序排在已有图片之后
+        items(items = importSlots) { slot ->
+            ImportTile(progress = { slot.progress })
+        }
+    }
+}
+
+@Composable
+private fun ImportTile(progress: () -> Float) {
+    // 与 ImageTile 的图片区域对齐
+    Box(
+        modifier = Modifier.size(70.dp)
+    ) {
+        Box(
+            modifier = Modifier
+                .align(Alignment.BottomStart)
+                .offset(x = 5.dp, y = (-5).dp)
+                .requiredSize(60.dp)
+                .clip(RoundedCornerShape(4.dp))
+                .background(ComposeColor(0xFFE0E0E0)),
+            contentAlignment = Alignment.Center
+        ) {
+            CircularProgressIndicator(
+                progress = progress,
+                modifier = Modifier.size(28.dp),
+                color = MaterialTheme.colorScheme.secondary,
+                strokeWidth = 3.dp
+            )
+        }
     }
 }
 
@@ -1423,7 +1320,6 @@ private fun ImageTile(
         ImageRequest.Builder(context)
             .data(File(path))
             .size(imageSizePx, imageSizePx)
-            .crossfade(true)
             .build()
     }
     val placeholderPainter = remember {
@@ -1503,17 +1399,21 @@ private fun themeAttrColor(
 @Composable
 private fun LocalImage(
     imagePath: String,
+    size: Dp,
     contentScale: ContentScale,
     modifier: Modifier = Modifier
 ) {
     val context = LocalContext.current
-    val model = remember(imagePath) { File(imagePath).takeIf { it.exists() } }
+    val sizePx = with(LocalDensity.current) { size.roundToPx() }
+    val request = remember(imagePath, sizePx) {
+        ImageRequest.Builder(context)
+            .data(File(imagePath).takeIf { it.exists() })
+            .size(sizePx)
+            .build()
+    }
     val placeholderPainter = remember { ColorPainter(ComposeColor(0xFFE0E0E0)) }
     AsyncImage(
-        model = ImageRequest.Builder(context)
-            .data(model)
-            .crossfade(true)
-            .build(),
+        model = request,
         contentDescription = null,
         contentScale = contentScale,
         placeholder = placeholderPainter,
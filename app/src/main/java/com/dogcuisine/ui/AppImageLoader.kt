@@ -0,0 +1,101 @@
+package com.dogcuisine.ui
+
+import android.app.ActivityManager
+import android.content.Context
+import android.graphics.Bitmap
+import coil.EventListener
+import coil.ImageLoader
+import coil.decode.DataSource
+import coil.memory.MemoryCache
+import coil.request.ErrorResult
+import coil.request.ImageRequest
+import coil.request.SuccessResult
+import java.io.File
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * 全应用共用的 Coil ImageLoader，由 App 通过 ImageLoaderFactory 提供，所有 AsyncImage 共享同一份内存缓存。
+ * 内存缓存用 Coil 按设备内存计算的默认大小。本地文件不经过 Coil 的磁盘缓存，解码后的列表小图由 ImageThumbnails 落盘。
+ *
+ * 列表缩略图经 [listThumbnail] 按 RGB_565 软件位图解码：菜谱图片都是不透明的 JPEG，每张只占硬件位图的一半，
+ * 同样的缓存能多留一倍的列表行。同时解码的图片数按内存限制：详情页大图每张十几 MB，低内存设备上并发解码容易 OOM
+ */
+object AppImageLoader {
+
+    private const val MAX_DECODE_PARALLELISM = 4
+    private const val LOW_RAM_DECODE_PARALLELISM = 2
+
+    @JvmStatic
+    fun create(context: Context, stats: ImageCacheStats): ImageLoader {
+        val appContext = context.applicationContext
+        val activityManager = appContext.getSystemService(ActivityManager::class.java)
+        val parallelism = if (activityManager.isLowRamDevice) {
+            LOW_RAM_DECODE_PARALLELISM
+        } else {
+            minOf(MAX_DECODE_PARALLELISM, Runtime.getRuntime().availableProcessors())
+        }
+        return ImageLoader.Builder(appContext)
+            .memoryCache { MemoryCache.Builder(appContext).build() }
+            .diskCache(null)
+            .bitmapFactoryMaxParallelism(parallelism)
+            .allowRgb565(true)
+            .crossfade(true)
+            .eventListener(stats)
+            .build()
+    }
+
+    /**
+     * 列表行的方形缩略图请求，按显示尺寸解码为 RGB_565
+     */
+    @JvmStatic
+    fun listThumbnail(context: Context, file: File?, sizePx: Int): ImageRequest {
+        return ImageRequest.Builder(context)
+            .data(file)
+            .size(sizePx)
+            .allowHardware(false)
+            .bitmapConfig(Bitmap.Config.RGB_565)
+            .build()
+    }
+}
+
+/**
+ * 图片加载统计：内存缓存命中、从文件解码与失败次数，可在任意线程读取。
+ * 可调试版本在应用进入后台时输出到日志，用来核对缓存大小是否够列表滚动使用
+ */
+class ImageCacheStats : EventListener {
+
+    private val memoryHits = AtomicLong()
+    private val decodes = AtomicLong()
+    private val failures = AtomicLong()
+
+    override fun onSuccess(request: ImageRequest, result: SuccessResult) {
+        if (result.dataSource == DataSource.MEMORY_CACHE) {
+            memoryHits.incrementAndGet()
+        } else {
+            decodes.incrementAndGet()
+        }
+    }
+
+    override fun onError(request: ImageRequest, result: ErrorResult) {
+        failures.incrementAndGet()
+    }
+
+    fun memoryHits(): Long = memoryHits.get()
+
+    fun decodes(): Long = decodes.get()
+
+    fun failures(): Long = failures.get()
+
+    /**
+     * 成功加载中内存缓存命中的比例，尚无加载时为 0
+     */
+    fun hitRate(): Float {
+        val hits = memoryHits.get()
+        val total = hits + decodes.get()
+        return if (total == 0L) 0f else hits / total.toFloat()
+    }
+
+    override fun toString(): String {
+        return "ImageCacheStats(memoryHits=${memoryHits()}, decodes=${decodes()}, failures=${failures()})"
+    }
+}
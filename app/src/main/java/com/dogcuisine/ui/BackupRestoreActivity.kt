@@ -47,6 +47,7 @@ import androidx.compose.ui.text.font.FontWeight
 import androidx.compose.ui.unit.dp
 import com.dogcuisine.App
 import com.dogcuisine.R
+import com.dogcuisine.TaskScope
 import java.io.BufferedInputStream
 import java.io.BufferedOutputStream
 import java.io.File
@@ -55,7 +56,6 @@ import java.io.FileOutputStream
 import java.text.SimpleDateFormat
 import java.util.Date
 import java.util.Locale
-import java.util.concurrent.ExecutorService
 import java.util.zip.ZipEntry
 import java.util.zip.ZipInputStream
 import java.util.zip.ZipOutputStream
@@ -68,7 +68,7 @@ class BackupRestoreActivity : AppCompatActivity() {
         }
     }
 
-    private lateinit var ioExecutor: ExecutorService
+    private lateinit var tasks: TaskScope
     private lateinit var loadingDialogHelper: LoadingDialogHelper
     private lateinit var restorePicker: ActivityResultLauncher<Array<String>>
     private lateinit var systemBarDelegate: ComposeSystemBarDelegate.Controller
@@ -82,7 +82,7 @@ class BackupRestoreActivity : AppCompatActivity() {
         systemBarDelegate = ComposeSystemBarDelegate.install(this)
 
         val app = App.getInstance()
-        ioExecutor = app.ioExecutor()
+        tasks = app.executors().scope(this)
         loadingDialogHelper = LoadingDialogHelper(this)
 
         restorePicker = registerForActivityResult(ActivityResultContracts.OpenDocument()) { uri ->
@@ -118,7 +118,7 @@ class BackupRestoreActivity : AppCompatActivity() {
     private fun startBackup() {
         if (isWorking) return
         setLoading(true)
-        ioExecutor.execute {
+        tasks.bulk().execute {
             try {
                 val path = createBackupZip()
                 runOnUiThread {
@@ -142,7 +142,7 @@ class BackupRestoreActivity : AppCompatActivity() {
     private fun startRestore(uri: Uri) {
         if (isWorking) return
         setLoading(true)
-        ioExecutor.execute {
+        tasks.bulk().execute {
             try {
                 val tempZip = copyUriToCache(uri)
                 restoreFromZip(tempZip)
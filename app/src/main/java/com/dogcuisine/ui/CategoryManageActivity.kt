@@ -54,10 +54,11 @@ import androidx.compose.ui.unit.sp
 import androidx.compose.ui.zIndex
 import com.dogcuisine.App
 import com.dogcuisine.R
+import com.dogcuisine.TaskPriority
+import com.dogcuisine.TaskScope
 import com.dogcuisine.data.CategoryDao
 import com.dogcuisine.data.CategoryEntity
-import com.dogcuisine.data.RecipeDao
-import java.util.concurrent.ExecutorService
+import com.dogcuisine.data.RecipeStatsDao
 import kotlin.math.roundToInt
 
 private data class EditableCategory(
@@ -80,13 +81,12 @@ class CategoryManageActivity : AppCompatActivity() {
     }
 
     private val categories = mutableStateListOf<EditableCategory>()
-    private val originalIds = mutableListOf<Long>()
     private var baselineState: List<Pair<Long?, String>> = emptyList()
     private var nextTempUiKey = -1L
 
     private lateinit var categoryDao: CategoryDao
-    private lateinit var recipeDao: RecipeDao
-    private lateinit var ioExecutor: ExecutorService
+    private lateinit var recipeStatsDao: RecipeStatsDao
+    private lateinit var tasks: TaskScope
 
     private var isSaving by mutableStateOf(false)
     private var nameDialogState by mutableStateOf<NameDialogState?>(null)
@@ -107,8 +107,8 @@ class CategoryManageActivity : AppCompatActivity() {
 
         val app = App.getInstance()
         categoryDao = app.getDatabase().categoryDao()
-        recipeDao = app.getDatabase().recipeDao()
-        ioExecutor = app.ioExecutor()
+        recipeStatsDao = app.getDatabase().recipeStatsDao()
+        tasks = app.executors().scope(this)
 
         setContent {
             DogCuisineTheme {
@@ -207,9 +207,9 @@ class CategoryManageActivity : AppCompatActivity() {
     }
 
     private fun loadCategories() {
-        ioExecutor.execute {
+        tasks.read(TaskPriority.INTERACTIVE).execute {
+            App.getInstance().awaitSeeded()
             val list = categoryDao.getAll() ?: emptyList()
-            val loadedIds = list.mapNotNull { it.id }
             nextTempUiKey = -1L
             val mapped = list.map { entity ->
                 EditableCategory(
@@ -219,8 +219,6 @@ class CategoryManageActivity : AppCompatActivity() {
                 )
             }
             runOnUiThread {
-                originalIds.clear()
-                originalIds.addAll(loadedIds)
                 categories.clear()
                 categories.addAll(mapped)
                 baselineState = mapped.map { it.id to it.name }
@@ -243,8 +241,8 @@ class CategoryManageActivity : AppCompatActivity() {
             categories.removeAt(index)
             return
         }
-        ioExecutor.execute {
-            val count = recipeDao.countByCategoryId(categoryId)
+        tasks.read(TaskPriority.INTERACTIVE).execute {
+            val count = recipeStatsDao.getCategoryCount(categoryId)
             runOnUiThread {
                 if (count > 0) {
                     cannotDeleteDialogVisible = true
@@ -265,18 +263,14 @@ class CategoryManageActivity : AppCompatActivity() {
         }
         isSaving = true
         val snapshot = categories.toList()
-        ioExecutor.execute {
+        // 只删除本页载入过的分类，编辑期间其他途径新增的不受影响
+        val loadedIds = baselineState.mapNotNull { it.first }
+        tasks.write().execute {
             try {
-                val currentIds = snapshot.mapNotNull { it.id }
-                val toDelete = originalIds.filter { id -> !currentIds.contains(id) }
-                if (toDelete.isNotEmpty()) {
-                    categoryDao.deleteByIds(toDelete)
-                }
-
                 val entities = snapshot.mapIndexed { index, item ->
                     CategoryEntity(item.id, item.name, index + 1)
                 }
-                categoryDao.insertAll(entities)
+                categoryDao.saveAll(loadedIds, entities)
 
                 runOnUiThread {
                     isSaving = false
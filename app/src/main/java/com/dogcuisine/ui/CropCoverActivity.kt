@@ -3,13 +3,11 @@ package com.dogcuisine.ui
 import android.content.Context
 import android.content.Intent
 import android.graphics.Bitmap
-import android.graphics.BitmapFactory
 import android.graphics.Canvas
 import android.graphics.Color
 import android.graphics.Matrix
 import android.graphics.Paint
 import android.graphics.RectF
-import android.media.ExifInterface
 import android.net.Uri
 import android.os.Bundle
 import android.widget.ImageView
@@ -59,6 +57,7 @@ class CropCoverActivity : AppCompatActivity() {
         private const val EXTRA_SOURCE_URI = "source_uri"
         const val EXTRA_CROPPED_URI = "cropped_uri"
         private const val OUTPUT_SIZE = 1080
+        private const val MAX_SOURCE_EDGE = 2048
 
         fun createIntent(context: Context, sourceUri: String): Intent {
             return Intent(context, CropCoverActivity::class.java)
@@ -226,59 +225,15 @@ class CropCoverActivity : AppCompatActivity() {
         }
     }
 
+    // 只打开一次来源，EXIF 方向在解码时应用，长边缩到 2048 以内
     private fun loadBitmap(uri: Uri): Bitmap? {
         return try {
-            val bounds = BitmapFactory.Options().apply { inJustDecodeBounds = true }
-            contentResolver.openInputStream(uri).use { input ->
-                if (input == null) return null
-                BitmapFactory.decodeStream(input, null, bounds)
-            }
-            var inSample = 1
-            val maxSide = max(bounds.outWidth, bounds.outHeight)
-            while (maxSide / inSample > 2048) {
-                inSample *= 2
-            }
-            val options = BitmapFactory.Options().apply {
-                inPreferredConfig = Bitmap.Config.ARGB_8888
-                inSampleSize = max(1, inSample)
-            }
-            val src = contentResolver.openInputStream(uri).use { input ->
-                if (input == null) return null
-                BitmapFactory.decodeStream(input, null, options)
-            } ?: return null
-            rotateByExifIfNeeded(src, uri)
+            ImageImporter.decodeImage(this, uri, MAX_SOURCE_EDGE)
         } catch (_: Exception) {
             null
         }
     }
 
-    private fun rotateByExifIfNeeded(source: Bitmap, uri: Uri): Bitmap {
-        var orientation = ExifInterface.ORIENTATION_UNDEFINED
-        try {
-            contentResolver.openInputStream(uri).use { input ->
-                if (input != null) {
-                    val exif = ExifInterface(input)
-                    orientation = exif.getAttributeInt(
-                        ExifInterface.TAG_ORIENTATION,
-                        ExifInterface.ORIENTATION_NORMAL
-                    )
-                }
-            }
-        } catch (_: Exception) {
-        }
-
-        val rotate = Matrix()
-        when (orientation) {
-            ExifInterface.ORIENTATION_ROTATE_90 -> rotate.postRotate(90f)
-            ExifInterface.ORIENTATION_ROTATE_180 -> rotate.postRotate(180f)
-            ExifInterface.ORIENTATION_ROTATE_270 -> rotate.postRotate(270f)
-            else -> return source
-        }
-        val out = Bitmap.createBitmap(source, 0, 0, source.width, source.height, rotate, true)
-        if (out !== source) source.recycle()
-        return out
-    }
-
     private fun dpToPx(valueDp: Float): Float {
         return valueDp * resources.displayMetrics.density
     }
@@ -0,0 +1,222 @@
+package com.dogcuisine.ui
+
+import android.content.Context
+import android.graphics.Bitmap
+import android.graphics.ImageDecoder
+import android.graphics.Rect
+import android.net.Uri
+import android.os.Handler
+import android.os.Looper
+import com.dogcuisine.ImageThumbnails
+import java.io.File
+import java.io.FileOutputStream
+import java.io.FilterOutputStream
+import java.io.OutputStream
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.math.roundToInt
+
+/**
+ * 图片导入：解码、压缩后写入 files/images，同时生成列表缩略图。
+ * 多张图片在有界线程池中并行处理，进度与结果回调到主线程，结果顺序与选择顺序一致
+ */
+class ImageImporter(
+    context: Context,
+    private val executor: Executor
+) {
+
+    companion object {
+        private const val MAX_IMAGE_LONG_EDGE = 1600
+
+        // 解码完成、压缩完成时上报的进度，写入文件后为 1
+        private const val PROGRESS_DECODED = 0.5f
+        private const val PROGRESS_COMPRESSED = 0.9f
+
+        // 同一毫秒内并行导入的文件名去重
+        private val fileSequence = AtomicInteger()
+
+        /**
+         * 单次打开来源完成解码：尺寸在同一次解码的头部回调中取得，EXIF 方向由 ImageDecoder 在解码时应用，
+         * 缩放到长边不超过 maxEdge（squareCrop 时为短边）并按需居中裁成正方形，不再产生旋转、缩放的中间位图。
+         * lowRam 时不透明图片按 RGB_565 解码
+         */
+        @Throws(Exception::class)
+        fun decodeImage(
+            context: Context,
+            uri: Uri,
+            maxEdge: Int,
+            squareCrop: Boolean = false,
+            lowRam: Boolean = false
+        ): Bitmap {
+            val source = ImageDecoder.createSource(context.contentResolver, uri)
+            return ImageDecoder.decodeBitmap(source) { decoder, info, _ ->
+                // 尺寸已按 EXIF 方向换算
+                val width = info.size.width
+                val height = info.size.height
+                val edge = if (squareCrop) minOf(width, height) else maxOf(width, height)
+                val scale = if (edge > maxEdge) maxEdge / edge.toFloat() else 1f
+                val targetW = maxOf(1, (width * scale).roundToInt())
+                val targetH = maxOf(1, (height * scale).roundToInt())
+                if (scale < 1f) {
+                    decoder.setTargetSize(targetW, targetH)
+                }
+                if (squareCrop && targetW != targetH) {
+                    val side = minOf(targetW, targetH)
+                    val left = (targetW - side) / 2
+                    val top = (targetH - side) / 2
+                    decoder.crop = Rect(left, top, left + side, top + side)
+                }
+                // 结果需要压缩或绘制到软件 Canvas，不能用硬件位图
+                decoder.allocator = ImageDecoder.ALLOCATOR_SOFTWARE
+                if (lowRam) {
+                    decoder.memorySizePolicy = ImageDecoder.MEMORY_POLICY_LOW_RAM
+                }
+            }
+        }
+    }
+
+    private val appContext = context.applicationContext
+    private val mainHandler = Handler(Looper.getMainLooper())
+
+    /**
+     * 并行导入一批图片。onProgress(序号, 0..1) 与 onComplete(成功的路径, 失败张数) 都在主线程回调
+     */
+    fun importAll(
+        uris: List<Uri>,
+        prefix: String,
+        onProgress: (Int, Float) -> Unit,
+        onComplete: (List<String>, Int) -> Unit
+    ) {
+        if (uris.isEmpty()) {
+            onComplete(emptyList(), 0)
+            return
+        }
+        val results = arrayOfNulls<String>(uris.size)
+        val remaining = AtomicInteger(uris.size)
+        uris.forEachIndexed { index, uri ->
+            executor.execute {
+                results[index] = try {
+                    importImage(uri, prefix) { progress -> mainHandler.post { onProgress(index, progress) } }
+                } catch (e: Exception) {
+                    e.printStackTrace()
+                    null
+                }
+                mainHandler.post { onProgress(index, 1f) }
+                // 最后完成的任务汇总结果，计数器保证能看到其他线程写入的结果
+                if (remaining.decrementAndGet() == 0) {
+                    val paths = results.filterNotNull()
+                    mainHandler.post { onComplete(paths, uris.size - paths.size) }
+                }
+            }
+        }
+    }
+
+    /**
+     * 导入裁剪后的封面，居中裁成正方形；失败时回调 null
+     */
+    fun importCover(croppedUri: Uri, onComplete: (String?) -> Unit) {
+        executor.execute {
+            val path = try {
+                val bitmap = decodeImage(appContext, croppedUri, MAX_IMAGE_LONG_EDGE, squareCrop = true, lowRam = true)
+                try {
+                    writeJpegFile("cover", bitmap)
+                } finally {
+                    bitmap.recycle()
+                }
+            } catch (e: Exception) {
+                e.printStackTrace()
+                null
+            }
+            mainHandler.post { onComplete(path) }
+        }
+    }
+
+    @Throws(Exception::class)
+    private fun importImage(uri: Uri, prefix: String, onProgress: (Float) -> Unit): String {
+        val bitmap = decodeImage(appContext, uri, MAX_IMAGE_LONG_EDGE, lowRam = true)
+        onProgress(PROGRESS_DECODED)
+        try {
+            return writeJpegFile(prefix, bitmap)
+        } finally {
+            bitmap.recycle()
+            onProgress(PROGRESS_COMPRESSED)
+        }
+    }
+
+    /**
+     * 按预估的质量直接编码写入文件：通常一次编码即可；实际体积超出目标时按实测大小再估一次，最多编码两次
+     */
+    private fun writeJpegFile(prefix: String, bitmap: Bitmap): String {
+        val dir = File(appContext.filesDir, "images")
+        if (!dir.exists()) {
+            dir.mkdirs()
+        }
+        val outFile = File(dir, "${prefix}_${System.currentTimeMillis()}_${fileSequence.incrementAndGet()}.jpg")
+        try {
+            val quality = estimateQuality(bitmap)
+            val size = encodeToFile(bitmap, quality, outFile)
+            val retry = JpegQuality.retry(quality, size)
+            if (retry != quality) {
+                encodeToFile(bitmap, retry, outFile)
+            }
+        } catch (e: Exception) {
+            // 不留下写了一半的文件
+            outFile.delete()
+            throw e
+        }
+        // 列表缩略图由已解码的位图直接生成，失败时列表退回原图
+        try {
+            ImageThumbnails.writeVariants(appContext, outFile, bitmap)
+        } catch (e: Exception) {
+            e.printStackTrace()
+        }
+        return outFile.absolutePath
+    }
+
+    private fun estimateQuality(bitmap: Bitmap): Int {
+        val pixels = bitmap.width.toLong() * bitmap.height
+        if (!JpegQuality.needsProbe(pixels)) {
+            return JpegQuality.START
+        }
+        val probeW = maxOf(1, (bitmap.width * JpegQuality.PROBE_SCALE).roundToInt())
+        val probeH = maxOf(1, (bitmap.height * JpegQuality.PROBE_SCALE).roundToInt())
+        val probe = Bitmap.createScaledBitmap(bitmap, probeW, probeH, true)
+        val counter = CountingOutputStream(NullOutputStream)
+        probe.compress(Bitmap.CompressFormat.JPEG, JpegQuality.START, counter)
+        if (probe !== bitmap) {
+            probe.recycle()
+        }
+        return JpegQuality.fromProbe(counter.count, probeW.toLong() * probeH, pixels)
+    }
+
+    private fun encodeToFile(bitmap: Bitmap, quality: Int, outFile: File): Long {
+        CountingOutputStream(FileOutputStream(outFile).buffered()).use { out ->
+            bitmap.compress(Bitmap.CompressFormat.JPEG, quality, out)
+            out.flush()
+            return out.count
+        }
+    }
+
+    private class CountingOutputStream(out: OutputStream) : FilterOutputStream(out) {
+        var count = 0L
+            private set
+
+        override fun write(b: Int) {
+            out.write(b)
+            count++
+        }
+
+        override fun write(b: ByteArray, off: Int, len: Int) {
+            out.write(b, off, len)
+            count += len
+        }
+    }
+
+    private object NullOutputStream : OutputStream() {
+        override fun write(b: Int) {
+        }
+
+        override fun write(b: ByteArray, off: Int, len: Int) {
+        }
+    }
+}
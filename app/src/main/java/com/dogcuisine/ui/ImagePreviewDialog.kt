@@ -13,7 +13,9 @@ import androidx.compose.ui.Modifier
 import androidx.compose.ui.graphics.Color as ComposeColor
 import androidx.compose.ui.graphics.painter.ColorPainter
 import androidx.compose.ui.layout.ContentScale
+import androidx.compose.ui.platform.LocalConfiguration
 import androidx.compose.ui.platform.LocalContext
+import androidx.compose.ui.platform.LocalDensity
 import androidx.compose.ui.unit.dp
 import androidx.compose.ui.window.Dialog
 import androidx.compose.ui.window.DialogProperties
@@ -55,13 +57,20 @@ private fun LocalImage(
     modifier: Modifier = Modifier
 ) {
     val context = LocalContext.current
-    val model = remember(imagePath) { File(imagePath).takeIf { it.exists() } }
+    // 预览最大不超过屏幕，按屏幕尺寸解码即可
+    val configuration = LocalConfiguration.current
+    val density = LocalDensity.current
+    val widthPx = with(density) { configuration.screenWidthDp.dp.roundToPx() }
+    val heightPx = with(density) { configuration.screenHeightDp.dp.roundToPx() }
+    val request = remember(imagePath, widthPx, heightPx) {
+        ImageRequest.Builder(context)
+            .data(File(imagePath).takeIf { it.exists() })
+            .size(widthPx, heightPx)
+            .build()
+    }
     val placeholderPainter = remember { ColorPainter(ComposeColor(0xFFE0E0E0)) }
     AsyncImage(
-        model = ImageRequest.Builder(context)
-            .data(model)
-            .crossfade(true)
-            .build(),
+        model = request,
         contentDescription = null,
         contentScale = contentScale,
         placeholder = placeholderPainter,
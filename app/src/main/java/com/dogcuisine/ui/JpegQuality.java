@@ -0,0 +1,72 @@
+package com.dogcuisine.ui;
+
+/**
+ * 导入图片时的 JPEG 质量选择：由缩小的探测图在起始质量下的体积推算整图体积，
+ * 按经验的质量/体积比例取不超过目标体积的最高质量，省去逐档试压
+ */
+final class JpegQuality {
+
+    static final int TARGET_BYTES = 600 * 1024;
+    static final int START = 85;
+    static final int MIN = 65;
+    static final int STEP = 5;
+
+    // 探测图宽高各缩一半；缩小后细节更密，每像素字节偏高，按经验折算回原图
+    static final float PROBE_SCALE = 0.5f;
+    private static final double PROBE_CORRECTION = 0.7;
+
+    // 起始质量下每像素字节数的保守上限，像素少到按此估算都不超标时跳过探测
+    private static final double MAX_BYTES_PER_PIXEL = 0.5;
+
+    // 相对 START 的体积比例，按常见照片的经验值，从高到低排列
+    private static final int[] QUALITIES = {85, 80, 75, 70, 65};
+    private static final double[] SIZE_RATIOS = {1.0, 0.83, 0.72, 0.64, 0.58};
+
+    private JpegQuality() {
+    }
+
+    /**
+     * 像素数少到按上限估算也不会超出目标时，直接用起始质量，不必探测
+     */
+    static boolean needsProbe(long pixels) {
+        return pixels * MAX_BYTES_PER_PIXEL > TARGET_BYTES;
+    }
+
+    /**
+     * 由探测图在起始质量下的字节数推算整图应使用的质量
+     */
+    static int fromProbe(long probeBytes, long probePixels, long pixels) {
+        return pick((double) probeBytes * pixels / Math.max(1L, probePixels) * PROBE_CORRECTION);
+    }
+
+    /**
+     * 首次编码体积超出目标时返回重新编码的质量，无需重编码时返回原质量。
+     * 按实测体积重新推算；推算结果不低于当前质量（比例估偏）时至少降一档
+     */
+    static int retry(int quality, long actualBytes) {
+        if (actualBytes <= TARGET_BYTES || quality <= MIN) {
+            return quality;
+        }
+        int next = pick(actualBytes / sizeRatio(quality));
+        return next < quality ? next : Math.max(MIN, quality - STEP);
+    }
+
+    // 预估体积不超过目标的最高质量，都超出时用最低质量
+    static int pick(double sizeAtStart) {
+        for (int i = 0; i < QUALITIES.length; i++) {
+            if (sizeAtStart * SIZE_RATIOS[i] <= TARGET_BYTES) {
+                return QUALITIES[i];
+            }
+        }
+        return MIN;
+    }
+
+    static double sizeRatio(int quality) {
+        for (int i = 0; i < QUALITIES.length; i++) {
+            if (QUALITIES[i] == quality) {
+                return SIZE_RATIOS[i];
+            }
+        }
+        return 1.0;
+    }
+}
@@ -1,11 +1,8 @@
 package com.dogcuisine.ui
 
-import android.content.Intent
 import android.os.Bundle
 import android.widget.Toast
 import androidx.activity.compose.setContent
-import androidx.activity.result.ActivityResultLauncher
-import androidx.activity.result.contract.ActivityResultContracts
 import androidx.annotation.DrawableRes
 import androidx.appcompat.app.AppCompatActivity
 import androidx.compose.foundation.ExperimentalFoundationApi
@@ -47,33 +44,38 @@ import androidx.compose.runtime.Composable
 import androidx.compose.runtime.LaunchedEffect
 import androidx.compose.runtime.getValue
 import androidx.compose.runtime.mutableStateListOf
+import androidx.compose.runtime.mutableStateMapOf
 import androidx.compose.runtime.mutableStateOf
 import androidx.compose.runtime.remember
+import androidx.compose.runtime.rememberUpdatedState
 import androidx.compose.runtime.setValue
+import androidx.compose.runtime.snapshotFlow
 import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
 import androidx.compose.ui.draw.clip
 import androidx.compose.ui.graphics.Color
 import androidx.compose.ui.layout.ContentScale
 import androidx.compose.ui.platform.LocalContext
+import androidx.compose.ui.platform.LocalDensity
 import androidx.compose.ui.res.painterResource
 import androidx.compose.ui.res.stringResource
 import androidx.compose.ui.text.font.FontWeight
+import androidx.compose.ui.unit.Dp
 import androidx.compose.ui.unit.dp
 import androidx.core.splashscreen.SplashScreen.Companion.installSplashScreen
+import androidx.lifecycle.Lifecycle
+import androidx.room.InvalidationTracker
 import coil.compose.AsyncImage
-import coil.request.ImageRequest
 import com.dogcuisine.App
+import com.dogcuisine.ImageThumbnails
 import com.dogcuisine.R
+import com.dogcuisine.TaskPriority
+import com.dogcuisine.TaskScope
 import com.dogcuisine.data.AppDatabase
 import com.dogcuisine.data.CategoryEntity
-import com.dogcuisine.data.RecipeEntity
-import com.dogcuisine.data.StepItem
-import com.google.gson.Gson
-import com.google.gson.reflect.TypeToken
+import com.dogcuisine.data.RecipeSummary
 import java.io.File
-import java.lang.reflect.Type
-import java.util.concurrent.ExecutorService
+import kotlinx.coroutines.flow.distinctUntilChanged
 
 private const val FAVORITES_CATEGORY_ID = -1L
 // 评分筛选伪分类：分值 s 对应 id = RATING_FILTER_BASE - s，即 -101..-105
@@ -85,6 +87,10 @@ private fun ratingFilterId(score: Int): Long = RATING_FILTER_BASE - score
 
 private fun ratingFromFilterId(id: Long): Int = (RATING_FILTER_BASE - id).toInt()
 
+private const val RECIPE_PAGE_SIZE = 30
+// 距列表末尾不足该条数时预取下一页
+private const val RECIPE_PREFETCH_DISTANCE = 8
+
 class MainActivity : AppCompatActivity() {
 
     companion object {
@@ -92,19 +98,33 @@ class MainActivity : AppCompatActivity() {
     }
 
     private lateinit var database: AppDatabase
-    private lateinit var ioExecutor: ExecutorService
-    private lateinit var categoryManageLauncher: ActivityResultLauncher<Intent>
-    private lateinit var syncLauncher: ActivityResultLauncher<Intent>
+    private lateinit var tasks: TaskScope
 
     private val categories = mutableStateListOf<CategoryEntity>()
-    private val recipes = mutableStateListOf<RecipeEntity>()
-    private val gson = Gson()
+    private val recipes = mutableStateListOf<RecipeSummary>()
 
     private var selectedCategoryId by mutableStateOf<Long?>(null)
     private var ratingExpanded by mutableStateOf(false)
     private var totalRecipeCount by mutableStateOf(0L)
+    // 分类栏角标：键与 selectedCategoryId 相同（收藏、评分筛选、普通分类）
+    private val categoryCounts = mutableStateMapOf<Long, Long>()
     private var overflowExpanded by mutableStateOf(false)
-    private var pendingDeleteRecipe by mutableStateOf<RecipeEntity?>(null)
+    private var pendingDeleteRecipe by mutableStateOf<RecipeSummary?>(null)
+
+    // 分页状态：切换分类或重新加载时递增 generation，丢弃旧请求的结果
+    private var recipePageGeneration = 0
+    private var recipePageLoading = false
+    private var hasMoreRecipes = false
+    private var loadedCategoryId: Long? = null
+
+    // 表变更标记：后台期间只记录，回到前台时按需重新加载，未变更则不查询
+    private var recipesDirty = false
+    private var categoriesDirty = false
+    private val tableObserver = object : InvalidationTracker.Observer(arrayOf("recipes", "categories")) {
+        override fun onInvalidated(tables: Set<String>) {
+            runOnUiThread { onTablesInvalidated(tables) }
+        }
+    }
 
     override fun onCreate(savedInstanceState: Bundle?) {
         val splashStartTime = System.currentTimeMillis()
@@ -117,33 +137,21 @@ class MainActivity : AppCompatActivity() {
         ComposeSystemBarDelegate.install(this)
 
         val app = App.getInstance()
-        database = app.getDatabase()
-        ioExecutor = app.ioExecutor()
-
-        categoryManageLauncher =
-            registerForActivityResult(ActivityResultContracts.StartActivityForResult()) { result ->
-                if (result.resultCode == RESULT_OK) {
-                    loadCategoriesFromDb()
-                }
-            }
-        syncLauncher =
-            registerForActivityResult(ActivityResultContracts.StartActivityForResult()) { result ->
-                if (result.resultCode == RESULT_OK) {
-                    database = App.getInstance().getDatabase()
-                    loadCategoriesFromDb()
-                }
-            }
+        bindDatabase(app.getDatabase())
+        tasks = app.executors().scope(this)
 
         setContent {
             DogCuisineTheme {
                 MainScreen(
                     title = getString(R.string.recipes_title_with_count, totalRecipeCount),
                     categories = categories,
+                    categoryCounts = categoryCounts,
                     selectedCategoryId = selectedCategoryId,
                     ratingExpanded = ratingExpanded,
                     onRatingExpandedChange = { ratingExpanded = it },
                     onRatingFilterSelected = { onRatingFilterSelected(it) },
                     recipes = recipes,
+                    onLoadMoreRecipes = { loadMoreRecipes() },
                     overflowExpanded = overflowExpanded,
                     onOverflowExpandedChange = { overflowExpanded = it },
                     onCategorySelected = { onCategorySelected(it) },
@@ -171,8 +179,44 @@ class MainActivity : AppCompatActivity() {
 
     override fun onResume() {
         super.onResume()
-        updateRecipeCountTitle()
-        loadCategoriesFromDb()
+        // 同步 / 恢复会重建数据库实例，旧实例上的观察者不再生效
+        val current = App.getInstance().getDatabase()
+        if (current !== database) {
+            bindDatabase(current)
+            categoriesDirty = true
+        }
+        reloadDirtyTables()
+    }
+
+    override fun onDestroy() {
+        database.invalidationTracker.removeObserver(tableObserver)
+        super.onDestroy()
+    }
+
+    private fun bindDatabase(db: AppDatabase) {
+        if (this::database.isInitialized) {
+            database.invalidationTracker.removeObserver(tableObserver)
+        }
+        database = db
+        db.invalidationTracker.addObserver(tableObserver)
+    }
+
+    private fun onTablesInvalidated(tables: Set<String>) {
+        if ("categories" in tables) categoriesDirty = true
+        if ("recipes" in tables) recipesDirty = true
+        if (lifecycle.currentState.isAtLeast(Lifecycle.State.RESUMED)) {
+            reloadDirtyTables()
+        }
+    }
+
+    private fun reloadDirtyTables() {
+        when {
+            // 分类加载完成后会连带重新加载菜谱列表
+            categoriesDirty -> loadCategoriesFromDb()
+            recipesDirty -> loadRecipesForSelectedCategory()
+        }
+        categoriesDirty = false
+        recipesDirty = false
     }
 
     private fun openSearch() {
@@ -181,7 +225,7 @@ class MainActivity : AppCompatActivity() {
     }
 
     private fun openCategoryManage() {
-        categoryManageLauncher.launch(CategoryManageActivity.createIntent(this))
+        startActivity(CategoryManageActivity.createIntent(this))
     }
 
     private fun openAddRecipe() {
@@ -189,14 +233,14 @@ class MainActivity : AppCompatActivity() {
     }
 
     private fun openSync() {
-        syncLauncher.launch(WebDavSyncActivity.createIntent(this))
+        startActivity(WebDavSyncActivity.createIntent(this))
     }
 
     private fun openBackupRestore() {
-        syncLauncher.launch(BackupRestoreActivity.createIntent(this))
+        startActivity(BackupRestoreActivity.createIntent(this))
     }
 
-    private fun openRecipeDetail(recipe: RecipeEntity) {
+    private fun openRecipeDetail(recipe: RecipeSummary) {
         val id = recipe.id ?: return
         startActivity(RecipeDetailActivity.createIntent(this, id))
         overridePendingTransition(R.anim.slide_in_right, R.anim.slide_out_left)
@@ -212,17 +256,30 @@ class MainActivity : AppCompatActivity() {
         loadRecipesForSelectedCategory()
     }
 
-    private fun updateRecipeCountTitle() {
-        ioExecutor.execute {
-            val count = database.recipeDao().count()
+    private fun updateRecipeCounts() {
+        tasks.read(TaskPriority.INTERACTIVE).execute {
+            val statsDao = database.recipeStatsDao()
+            val count = statsDao.totalCount
+            val counts = HashMap<Long, Long>()
+            counts[FAVORITES_CATEGORY_ID] = statsDao.favoriteCount
+            for (score in 1..5) {
+                counts[ratingFilterId(score)] = statsDao.getRatingCount(score)
+            }
+            for (stat in statsDao.categoryCounts) {
+                counts[stat.scopeId] = stat.count
+            }
             runOnUiThread {
                 totalRecipeCount = count
+                categoryCounts.clear()
+                categoryCounts.putAll(counts)
             }
         }
     }
 
     private fun loadCategoriesFromDb() {
-        ioExecutor.execute {
+        tasks.read(TaskPriority.INTERACTIVE).execute {
+            // 首次启动时默认分类由 App 在写线程插入，读库线程与它没有先后保证
+            App.getInstance().awaitSeeded()
             val dbCategories = database.categoryDao().getAll() ?: emptyList()
             var nextSelected = selectedCategoryId ?: FAVORITES_CATEGORY_ID
 
@@ -252,55 +309,71 @@ class MainActivity : AppCompatActivity() {
 
     private fun loadRecipesForSelectedCategory() {
         val currentCategory = selectedCategoryId
-        ioExecutor.execute {
-            val list = when {
-                currentCategory == FAVORITES_CATEGORY_ID -> database.recipeDao().getFavorites()
-                isRatingFilter(currentCategory) -> database.recipeDao().getByRating(ratingFromFilterId(currentCategory!!))
-                else -> database.recipeDao().getByCategoryId(currentCategory)
-            } ?: emptyList()
+        // 同一分类刷新时按已加载条数重新读取，保持滚动位置；切换分类只取首页
+        val limit = if (currentCategory == loadedCategoryId) {
+            maxOf(RECIPE_PAGE_SIZE, recipes.size)
+        } else {
+            RECIPE_PAGE_SIZE
+        }
+        val generation = ++recipePageGeneration
+        recipePageLoading = true
+        tasks.read(TaskPriority.INTERACTIVE).execute {
+            val list = queryRecipePage(currentCategory, Long.MAX_VALUE, Long.MAX_VALUE, limit)
             runOnUiThread {
+                if (generation != recipePageGeneration) return@runOnUiThread
+                recipePageLoading = false
+                hasMoreRecipes = list.size >= limit
+                loadedCategoryId = currentCategory
                 recipes.clear()
                 recipes.addAll(list)
-                updateRecipeCountTitle()
+                updateRecipeCounts()
             }
         }
     }
 
-    private fun deleteRecipe(recipe: RecipeEntity) {
+    private fun loadMoreRecipes() {
+        if (recipePageLoading || !hasMoreRecipes) return
+        val last = recipes.lastOrNull() ?: return
+        val lastId = last.id ?: return
+        val currentCategory = selectedCategoryId
+        val generation = recipePageGeneration
+        recipePageLoading = true
+        tasks.read(TaskPriority.PREFETCH).execute {
+            val page = queryRecipePage(currentCategory, last.updatedAt, lastId, RECIPE_PAGE_SIZE)
+            runOnUiThread {
+                if (generation != recipePageGeneration) return@runOnUiThread
+                recipePageLoading = false
+                hasMoreRecipes = page.size >= RECIPE_PAGE_SIZE
+                recipes.addAll(page)
+            }
+        }
+    }
+
+    private fun queryRecipePage(categoryId: Long?, afterUpdatedAt: Long, afterId: Long, limit: Int): List<RecipeSummary> {
+        val dao = database.recipeDao()
+        return when {
+            categoryId == FAVORITES_CATEGORY_ID -> dao.getFavoriteSummaryPage(afterUpdatedAt, afterId, limit)
+            isRatingFilter(categoryId) -> dao.getSummaryPageByRating(ratingFromFilterId(categoryId!!), afterUpdatedAt, afterId, limit)
+            else -> dao.getSummaryPageByCategoryId(categoryId, afterUpdatedAt, afterId, limit)
+        } ?: emptyList()
+    }
+
+    private fun deleteRecipe(recipe: RecipeSummary) {
         val recipeId = recipe.id
         if (recipeId == null) {
             Toast.makeText(this, getString(R.string.delete_missing_id_toast), Toast.LENGTH_SHORT).show()
             return
         }
-        ioExecutor.execute {
-            deleteImages(recipe)
-            database.recipeDao().deleteById(recipeId)
+        tasks.write().execute {
+            // 只删除不再被其它菜谱引用的图片
+            database.deleteRecipe(recipeId).forEach { deleteFileSafe(it) }
+            // 列表由 recipes 表的失效通知刷新
             runOnUiThread {
                 Toast.makeText(this, getString(R.string.deleted_toast), Toast.LENGTH_SHORT).show()
-                loadRecipesForSelectedCategory()
-            }
-        }
-    }
-
-    private fun deleteImages(recipe: RecipeEntity) {
-        deleteFileSafe(recipe.coverImagePath)
-        parseSteps(recipe.stepsJson).forEach { step ->
-            step.imagePaths.forEach { path ->
-                deleteFileSafe(path)
             }
         }
     }
 
-    private fun parseSteps(json: String?): List<StepItem> {
-        if (json.isNullOrEmpty()) return emptyList()
-        return try {
-            val type: Type = object : TypeToken<List<StepItem>>() {}.type
-            gson.fromJson<List<StepItem>>(json, type) ?: emptyList()
-        } catch (_: Exception) {
-            emptyList()
-        }
-    }
-
     private fun deleteFileSafe(path: String?) {
         if (path.isNullOrEmpty()) return
         runCatching {
@@ -308,6 +381,7 @@ class MainActivity : AppCompatActivity() {
             if (file.exists()) {
                 file.delete()
             }
+            ImageThumbnails.delete(this, path)
         }
     }
 }
@@ -316,16 +390,18 @@ class MainActivity : AppCompatActivity() {
 private fun MainScreen(
     title: String,
     categories: List<CategoryEntity>,
+    categoryCounts: Map<Long, Long>,
     selectedCategoryId: Long?,
     ratingExpanded: Boolean,
     onRatingExpandedChange: (Boolean) -> Unit,
     onRatingFilterSelected: (Int) -> Unit,
-    recipes: List<RecipeEntity>,
+    recipes: List<RecipeSummary>,
+    onLoadMoreRecipes: () -> Unit,
     overflowExpanded: Boolean,
     onOverflowExpandedChange: (Boolean) -> Unit,
     onCategorySelected: (CategoryEntity) -> Unit,
-    onRecipeClick: (RecipeEntity) -> Unit,
-    onRecipeLongClick: (RecipeEntity) -> Unit,
+    onRecipeClick: (RecipeSummary) -> Unit,
+    onRecipeLongClick: (RecipeSummary) -> Unit,
     onSearchClick: () -> Unit,
     onCategoryManageClick: () -> Unit,
     onAddClick: () -> Unit,
@@ -366,6 +442,7 @@ private fun MainScreen(
                         .fillMaxHeight()
                         .width(112.dp),
                     categories = categories,
+                    counts = categoryCounts,
                     selectedCategoryId = selectedCategoryId,
                     ratingExpanded = ratingExpanded,
                     onRatingExpandedChange = onRatingExpandedChange,
@@ -379,6 +456,7 @@ private fun MainScreen(
                     listState = recipeListState,
                     selectedCategoryId = selectedCategoryId,
                     recipes = recipes,
+                    onLoadMore = onLoadMoreRecipes,
                     onRecipeClick = onRecipeClick,
                     onRecipeLongClick = onRecipeLongClick
                 )
@@ -472,6 +550,7 @@ private fun ToolbarIconButton(
 private fun CategoryPane(
     modifier: Modifier = Modifier,
     categories: List<CategoryEntity>,
+    counts: Map<Long, Long>,
     selectedCategoryId: Long?,
     ratingExpanded: Boolean,
     onRatingExpandedChange: (Boolean) -> Unit,
@@ -497,6 +576,7 @@ private fun CategoryPane(
                 item(key = "favorites") {
                     CategoryPaneRow(
                         text = favorites.name,
+                        count = counts[FAVORITES_CATEGORY_ID],
                         selected = selectedCategoryId == FAVORITES_CATEGORY_ID,
                         onClick = { onCategorySelected(favorites) }
                     )
@@ -513,6 +593,7 @@ private fun CategoryPane(
                 items(items = (1..5).toList(), key = { "rating-$it" }) { score ->
                     CategoryPaneRow(
                         text = stringResource(R.string.rating_score_format, score),
+                        count = counts[ratingFilterId(score)],
                         selected = selectedCategoryId == ratingFilterId(score),
                         indent = true,
                         onClick = { onRatingFilterSelected(score) }
@@ -522,6 +603,7 @@ private fun CategoryPane(
             items(items = realCategories, key = { it.id ?: it.hashCode().toLong() }) { category ->
                 CategoryPaneRow(
                     text = category.name,
+                    count = category.id?.let { counts[it] },
                     selected = category.id == selectedCategoryId,
                     onClick = { onCategorySelected(category) }
                 )
@@ -534,6 +616,7 @@ private fun CategoryPane(
 private fun CategoryPaneRow(
     text: String,
     selected: Boolean,
+    count: Long? = null,
     indent: Boolean = false,
     onClick: () -> Unit
 ) {
@@ -550,17 +633,30 @@ private fun CategoryPaneRow(
             .fillMaxWidth()
             .clickable { onClick() }
     ) {
-        Text(
-            text = text,
+        val contentColor = if (selected) MaterialTheme.colorScheme.onSecondary else MaterialTheme.colorScheme.onSurface
+        Row(
             modifier = Modifier.padding(
                 start = if (indent) 22.dp else 10.dp,
                 end = 10.dp,
                 top = 10.dp,
                 bottom = 10.dp
             ),
-            style = MaterialTheme.typography.bodyMedium,
-            color = if (selected) MaterialTheme.colorScheme.onSecondary else MaterialTheme.colorScheme.onSurface
-        )
+            verticalAlignment = Alignment.CenterVertically
+        ) {
+            Text(
+                text = text,
+                modifier = Modifier.weight(1f),
+                style = MaterialTheme.typography.bodyMedium,
+                color = contentColor
+            )
+            if (count != null) {
+                Text(
+                    text = count.toString(),
+                    style = MaterialTheme.typography.labelSmall,
+                    color = contentColor.copy(alpha = 0.7f)
+                )
+            }
+        }
     }
 }
 
@@ -569,13 +665,27 @@ private fun RecipePane(
     modifier: Modifier = Modifier,
     listState: LazyListState,
     selectedCategoryId: Long?,
-    recipes: List<RecipeEntity>,
-    onRecipeClick: (RecipeEntity) -> Unit,
-    onRecipeLongClick: (RecipeEntity) -> Unit
+    recipes: List<RecipeSummary>,
+    onLoadMore: () -> Unit,
+    onRecipeClick: (RecipeSummary) -> Unit,
+    onRecipeLongClick: (RecipeSummary) -> Unit
 ) {
-    LaunchedEffect(selectedCategoryId, recipes.size) {
+    LaunchedEffect(selectedCategoryId) {
         listState.scrollToItem(0)
     }
+    val currentOnLoadMore by rememberUpdatedState(onLoadMore)
+    LaunchedEffect(listState) {
+        // 条数变化也要重新判断，首页不足一屏时可连续补页
+        snapshotFlow {
+            val lastVisible = listState.layoutInfo.visibleItemsInfo.lastOrNull()?.index ?: -1
+            val total = listState.layoutInfo.totalItemsCount
+            if (total > 0 && lastVisible >= total - RECIPE_PREFETCH_DISTANCE) total else -1
+        }
+            .distinctUntilChanged()
+            .collect { nearEndTotal ->
+                if (nearEndTotal > 0) currentOnLoadMore()
+            }
+    }
 
     Card(
         modifier = modifier,
@@ -606,7 +716,7 @@ private fun RecipePane(
 @OptIn(ExperimentalFoundationApi::class)
 @Composable
 private fun RecipeCard(
-    recipe: RecipeEntity,
+    recipe: RecipeSummary,
     onClick: () -> Unit,
     onLongClick: () -> Unit
 ) {
@@ -627,9 +737,8 @@ private fun RecipeCard(
     ) {
         RecipeThumbnail(
             imagePath = recipe.coverImagePath,
-            modifier = Modifier
-                .size(74.dp)
-                .clip(RoundedCornerShape(10.dp))
+            size = 74.dp,
+            modifier = Modifier.clip(RoundedCornerShape(10.dp))
         )
         Column(
             modifier = Modifier
@@ -650,27 +759,26 @@ private fun RecipeCard(
 @Composable
 private fun RecipeThumbnail(
     imagePath: String?,
+    size: Dp,
     modifier: Modifier = Modifier
 ) {
     val context = LocalContext.current
     val fallbackPainter = painterResource(id = R.drawable.ic_launcher_foreground)
-    val model = remember(imagePath) {
-        imagePath
-            ?.takeIf { it.isNotBlank() }
-            ?.let(::File)
-            ?.takeIf { it.exists() }
+    val sizePx = with(LocalDensity.current) { size.roundToPx() }
+    val model = rememberThumbnailFile(imagePath, sizePx)
+    val request = remember(model, sizePx) {
+        AppImageLoader.listThumbnail(context, model, sizePx)
     }
     AsyncImage(
-        model = ImageRequest.Builder(context)
-            .data(model)
-            .crossfade(true)
-            .build(),
+        model = request,
         contentDescription = null,
         contentScale = ContentScale.Crop,
         placeholder = fallbackPainter,
         error = fallbackPainter,
         fallback = fallbackPainter,
-        modifier = modifier.background(MaterialTheme.colorScheme.surfaceVariant)
+        modifier = modifier
+            .size(size)
+            .background(MaterialTheme.colorScheme.surfaceVariant)
     )
 }
 
@@ -706,9 +814,9 @@ private fun EmptyRecipeState() {
 
 @Composable
 private fun DeleteConfirmDialog(
-    recipe: RecipeEntity?,
+    recipe: RecipeSummary?,
     onDismiss: () -> Unit,
-    onConfirm: (RecipeEntity) -> Unit
+    onConfirm: (RecipeSummary) -> Unit
 ) {
     val target = recipe ?: return
     AppAlertDialog(
@@ -11,6 +11,7 @@ import androidx.activity.compose.setContent
 import androidx.appcompat.app.AppCompatActivity
 import androidx.compose.foundation.ExperimentalFoundationApi
 import androidx.compose.foundation.background
+import androidx.compose.foundation.clickable
 import androidx.compose.foundation.combinedClickable
 import androidx.compose.foundation.layout.Arrangement
 import androidx.compose.foundation.layout.Box
@@ -45,24 +46,25 @@ import androidx.compose.runtime.setValue
 import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
 import androidx.compose.ui.layout.ContentScale
+import androidx.compose.ui.platform.LocalConfiguration
 import androidx.compose.ui.platform.LocalContext
+import androidx.compose.ui.platform.LocalDensity
 import androidx.compose.ui.res.painterResource
 import androidx.compose.ui.res.stringResource
 import androidx.compose.ui.text.font.FontWeight
+import androidx.compose.ui.unit.Dp
 import androidx.compose.ui.unit.dp
 import coil.compose.AsyncImage
 import coil.request.ImageRequest
+import coil.size.Dimension
+import coil.size.Size
 import com.dogcuisine.App
 import com.dogcuisine.R
-import com.dogcuisine.data.CategoryDao
-import com.dogcuisine.data.RecipeDao
-import com.dogcuisine.data.RecipeEntity
+import com.dogcuisine.TaskPriority
+import com.dogcuisine.TaskScope
+import com.dogcuisine.data.RecipeDetail
 import com.dogcuisine.data.StepItem
-import com.google.gson.Gson
-import com.google.gson.reflect.TypeToken
 import java.io.File
-import java.lang.reflect.Type
-import java.util.concurrent.ExecutorService
 
 class RecipeDetailActivity : AppCompatActivity() {
 
@@ -75,11 +77,8 @@ class RecipeDetailActivity : AppCompatActivity() {
         }
     }
 
-    private lateinit var ioExecutor: ExecutorService
-    private lateinit var recipeDao: RecipeDao
-    private lateinit var categoryDao: CategoryDao
+    private lateinit var tasks: TaskScope
 
-    private val gson = Gson()
     private val steps = mutableStateListOf<StepItem>()
 
     private var recipeId: Long = -1L
@@ -97,9 +96,7 @@ class RecipeDetailActivity : AppCompatActivity() {
         ComposeSystemBarDelegate.install(this)
 
         val app = App.getInstance()
-        ioExecutor = app.ioExecutor()
-        recipeDao = app.getDatabase().recipeDao()
-        categoryDao = app.getDatabase().categoryDao()
+        tasks = app.executors().scope(this)
 
         recipeId = intent.getLongExtra(EXTRA_RECIPE_ID, -1L)
         if (recipeId <= 0L) {
@@ -120,6 +117,7 @@ class RecipeDetailActivity : AppCompatActivity() {
                     rating = rating,
                     onBack = { finish() },
                     onToggleFavorite = { toggleFavorite() },
+                    onRatingChange = { score -> changeRating(score) },
                     onEdit = { openEditPage() },
                     onImageClick = { path -> previewImagePath = path },
                     onImageLongClick = { path -> saveImagePath = path }
@@ -158,50 +156,55 @@ class RecipeDetailActivity : AppCompatActivity() {
         }
     }
 
+    override fun onPause() {
+        super.onPause()
+        App.getInstance().recipeFlagWriter().flush()
+    }
+
     override fun finish() {
         super.finish()
         overridePendingTransition(R.anim.slide_in_left, R.anim.slide_out_right)
     }
 
     private fun loadRecipe() {
-        ioExecutor.execute {
-            val entity = recipeDao.getById(recipeId)
-            val category = if (entity?.categoryId != null) {
-                categoryDao.getById(entity.categoryId!!)
-            } else {
-                null
-            }
+        tasks.read(TaskPriority.INTERACTIVE).execute {
+            val detail = App.getInstance().getDatabase().recipeRepository().getRecipe(recipeId)
             runOnUiThread {
-                if (entity == null) {
+                if (detail == null) {
                     Toast.makeText(this, getString(R.string.recipe_not_found_toast), Toast.LENGTH_SHORT).show()
                     finish()
                     return@runOnUiThread
                 }
-                bindRecipe(entity, category?.name)
+                bindRecipe(detail)
             }
         }
     }
 
-    private fun bindRecipe(entity: RecipeEntity, category: String?) {
+    private fun bindRecipe(detail: RecipeDetail) {
+        val entity = detail.recipe
+        val category = detail.categoryName
         recipeName = entity.name ?: ""
         categoryName = if (category.isNullOrEmpty()) getString(R.string.category_default) else category
         coverImagePath = entity.coverImagePath
-        isFavorite = entity.isFavorite == 1
-        rating = entity.rating
-        ingredient = parseIngredient(entity.ingredientJson)
+        // 尚未写入数据库的修改优先，避免重新加载时闪回旧值
+        val flagWriter = App.getInstance().recipeFlagWriter()
+        isFavorite = (flagWriter.getPendingFavorite(recipeId) ?: entity.isFavorite) == 1
+        rating = flagWriter.getPendingRating(recipeId) ?: entity.rating
+        ingredient = detail.ingredient
         steps.clear()
-        steps.addAll(parseSteps(entity.stepsJson))
+        steps.addAll(detail.steps)
     }
 
     private fun toggleFavorite() {
         if (recipeId <= 0L) return
-        val next = if (isFavorite) 0 else 1
-        ioExecutor.execute {
-            recipeDao.updateFavorite(recipeId, next)
-            runOnUiThread {
-                isFavorite = next == 1
-            }
-        }
+        isFavorite = !isFavorite
+        App.getInstance().recipeFlagWriter().setFavorite(recipeId, isFavorite)
+    }
+
+    private fun changeRating(score: Int) {
+        if (recipeId <= 0L) return
+        rating = score
+        App.getInstance().recipeFlagWriter().setRating(recipeId, score)
     }
 
     private fun openEditPage() {
@@ -209,7 +212,7 @@ class RecipeDetailActivity : AppCompatActivity() {
     }
 
     private fun saveImageToGallery(imagePath: String) {
-        ioExecutor.execute {
+        tasks.bulk().execute {
             try {
                 val sourceFile = File(imagePath)
                 if (!sourceFile.exists()) {
@@ -257,25 +260,6 @@ class RecipeDetailActivity : AppCompatActivity() {
             }
         }
     }
-
-    private fun parseSteps(json: String?): List<StepItem> {
-        if (json.isNullOrEmpty()) return emptyList()
-        return try {
-            val type: Type = object : TypeToken<List<StepItem>>() {}.type
-            gson.fromJson<List<StepItem>>(json, type) ?: emptyList()
-        } catch (_: Exception) {
-            emptyList()
-        }
-    }
-
-    private fun parseIngredient(json: String?): StepItem {
-        if (json.isNullOrEmpty()) return StepItem()
-        return try {
-            gson.fromJson(json, StepItem::class.java) ?: StepItem()
-        } catch (_: Exception) {
-            StepItem()
-        }
-    }
 }
 
 @OptIn(ExperimentalMaterial3Api::class)
@@ -290,6 +274,7 @@ private fun RecipeDetailScreen(
     rating: Int,
     onBack: () -> Unit,
     onToggleFavorite: () -> Unit,
+    onRatingChange: (Int) -> Unit,
     onEdit: () -> Unit,
     onImageClick: (String) -> Unit,
     onImageLongClick: (String) -> Unit
@@ -351,9 +336,8 @@ private fun RecipeDetailScreen(
             ) {
                 LocalSquareCover(
                     imagePath = coverImagePath,
-                    modifier = Modifier
-                        .size(240.dp)
-                        .align(Alignment.CenterHorizontally),
+                    size = 240.dp,
+                    modifier = Modifier.align(Alignment.CenterHorizontally),
                     onClick = { coverImagePath?.let { onImageClick(it) } },
                     onLongClick = { coverImagePath?.let { onImageLongClick(it) } }
                 )
@@ -398,7 +382,9 @@ private fun RecipeDetailScreen(
                             ),
                             contentDescription = stringResource(R.string.recipe_rating_desc, score),
                             tint = MaterialTheme.colorScheme.secondary,
-                            modifier = Modifier.size(28.dp)
+                            modifier = Modifier
+                                .size(28.dp)
+                                .clickable { onRatingChange(if (rating == score) 0 else score) }
                         )
                         if (score < 5) {
                             Spacer(modifier = Modifier.width(8.dp))
@@ -464,6 +450,7 @@ private fun RecipeDetailScreen(
 @Composable
 private fun LocalSquareCover(
     imagePath: String?,
+    size: Dp,
     modifier: Modifier = Modifier,
     onClick: (() -> Unit)? = null,
     onLongClick: (() -> Unit)? = null
@@ -476,6 +463,13 @@ private fun LocalSquareCover(
             ?.let(::File)
             ?.takeIf { it.exists() }
     }
+    val sizePx = with(LocalDensity.current) { size.roundToPx() }
+    val request = remember(model, sizePx) {
+        ImageRequest.Builder(context)
+            .data(model)
+            .size(sizePx)
+            .build()
+    }
     val interactionModifier = if (onClick != null || onLongClick != null) {
         Modifier.combinedClickable(
             onClick = { onClick?.invoke() },
@@ -485,15 +479,14 @@ private fun LocalSquareCover(
         Modifier
     }
     Card(
-        modifier = modifier.then(interactionModifier),
+        modifier = modifier
+            .size(size)
+            .then(interactionModifier),
         shape = RoundedCornerShape(14.dp),
         colors = CardDefaults.cardColors(containerColor = MaterialTheme.colorScheme.surfaceVariant)
     ) {
         AsyncImage(
-            model = ImageRequest.Builder(context)
-                .data(model)
-                .crossfade(true)
-                .build(),
+            model = request,
             modifier = Modifier.fillMaxSize(),
             contentDescription = null,
             contentScale = ContentScale.Crop,
@@ -612,12 +605,16 @@ private fun FullWidthRatioImage(
 ) {
     val context = LocalContext.current
     val fallbackPainter = painterResource(id = R.drawable.ic_launcher_foreground)
-    val model = remember(imagePath) { File(imagePath).takeIf { it.exists() } }
+    // 图片占满屏幕宽度，高度按比例，只需限定宽度
+    val widthPx = with(LocalDensity.current) { LocalConfiguration.current.screenWidthDp.dp.roundToPx() }
+    val request = remember(imagePath, widthPx) {
+        ImageRequest.Builder(context)
+            .data(File(imagePath).takeIf { it.exists() })
+            .size(Size(Dimension(widthPx), Dimension.Undefined))
+            .build()
+    }
     AsyncImage(
-        model = ImageRequest.Builder(context)
-            .data(model)
-            .crossfade(true)
-            .build(),
+        model = request,
         contentDescription = null,
         contentScale = ContentScale.Fit,
         placeholder = fallbackPainter,
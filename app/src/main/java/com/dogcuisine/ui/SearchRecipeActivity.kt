@@ -3,8 +3,10 @@ package com.dogcuisine.ui
 import android.content.Context
 import android.content.Intent
 import android.os.Bundle
+import android.os.CancellationSignal
 import android.os.Handler
 import android.os.Looper
+import android.os.OperationCanceledException
 import androidx.activity.OnBackPressedCallback
 import androidx.activity.compose.setContent
 import androidx.appcompat.app.AppCompatActivity
@@ -21,6 +23,7 @@ import androidx.compose.foundation.layout.height
 import androidx.compose.foundation.layout.padding
 import androidx.compose.foundation.layout.size
 import androidx.compose.foundation.lazy.LazyColumn
+import androidx.compose.foundation.lazy.LazyRow
 import androidx.compose.foundation.lazy.items
 import androidx.compose.foundation.shape.RoundedCornerShape
 import androidx.compose.foundation.text.BasicTextField
@@ -51,6 +54,7 @@ import androidx.compose.ui.graphics.Color
 import androidx.compose.ui.graphics.SolidColor
 import androidx.compose.ui.layout.ContentScale
 import androidx.compose.ui.platform.LocalContext
+import androidx.compose.ui.platform.LocalDensity
 import androidx.compose.ui.platform.LocalFocusManager
 import androidx.compose.ui.platform.LocalSoftwareKeyboardController
 import androidx.compose.ui.res.painterResource
@@ -58,23 +62,25 @@ import androidx.compose.ui.res.stringResource
 import androidx.compose.ui.text.TextStyle
 import androidx.compose.ui.text.font.FontWeight
 import androidx.compose.ui.text.style.TextAlign
+import androidx.compose.ui.unit.Dp
 import androidx.compose.ui.unit.dp
 import androidx.compose.ui.unit.sp
 import coil.compose.AsyncImage
-import coil.request.ImageRequest
 import com.dogcuisine.App
 import com.dogcuisine.R
-import com.dogcuisine.data.RecipeDao
-import com.dogcuisine.data.RecipeEntity
-import java.io.File
+import com.dogcuisine.TaskPriority
+import com.dogcuisine.TaskScope
+import com.dogcuisine.data.IngredientTermDao
+import com.dogcuisine.data.IngredientTerms
+import com.dogcuisine.data.RecipeSearcher
+import com.dogcuisine.data.RecipeSummary
 import java.text.SimpleDateFormat
 import java.util.Locale
-import java.util.concurrent.ExecutorService
 
 class SearchRecipeActivity : AppCompatActivity() {
 
     companion object {
-        private const val SEARCH_DEBOUNCE_MS = 500L
+        private const val SEARCH_DEBOUNCE_MS = 120L
 
         fun createIntent(context: Context): Intent {
             return Intent(context, SearchRecipeActivity::class.java)
@@ -82,15 +88,18 @@ class SearchRecipeActivity : AppCompatActivity() {
     }
 
     private val mainHandler = Handler(Looper.getMainLooper())
-    private val searchResults = mutableStateListOf<RecipeEntity>()
+    private val searchResults = mutableStateListOf<RecipeSummary>()
+    private val ingredientFilters = mutableStateListOf<String>()
     private val formatter = SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.CHINA)
 
-    private lateinit var ioExecutor: ExecutorService
-    private lateinit var recipeDao: RecipeDao
+    private lateinit var tasks: TaskScope
+    private lateinit var recipeSearcher: RecipeSearcher
+    private lateinit var ingredientTermDao: IngredientTermDao
 
     private var keyword by mutableStateOf("")
     private var showResultPanel by mutableStateOf(false)
     private var pendingSearchTask: Runnable? = null
+    private var runningSearch: CancellationSignal? = null
     private var searchVersion = 0
 
     override fun onCreate(savedInstanceState: Bundle?) {
@@ -103,8 +112,9 @@ class SearchRecipeActivity : AppCompatActivity() {
         })
 
         val app = App.getInstance()
-        ioExecutor = app.ioExecutor()
-        recipeDao = app.getDatabase().recipeDao()
+        tasks = app.executors().scope(this)
+        recipeSearcher = RecipeSearcher(app.getDatabase())
+        ingredientTermDao = app.getDatabase().ingredientTermDao()
 
         setContent {
             DogCuisineTheme {
@@ -112,8 +122,11 @@ class SearchRecipeActivity : AppCompatActivity() {
                     keyword = keyword,
                     showResultPanel = showResultPanel,
                     searchResults = searchResults,
+                    ingredientFilters = ingredientFilters,
                     formatUpdatedAt = { formatter.format(it) },
                     onKeywordChange = { onKeywordChanged(it) },
+                    onAddIngredientFilter = { addIngredientFilter() },
+                    onRemoveIngredientFilter = { removeIngredientFilter(it) },
                     onBack = { finishWithoutAnimation() },
                     onCancel = { finishWithoutAnimation() },
                     onRecipeClick = { openRecipeDetail(it) }
@@ -124,11 +137,57 @@ class SearchRecipeActivity : AppCompatActivity() {
 
     private fun onKeywordChanged(newKeyword: String) {
         keyword = newKeyword
-        scheduleSearch(newKeyword.trim())
+        // 食材筛选时输入框只用于录入食材，不触发关键词检索
+        if (ingredientFilters.isEmpty()) {
+            scheduleSearch(newKeyword.trim())
+        }
+    }
+
+    private fun addIngredientFilter() {
+        val terms = IngredientTerms.extract(keyword).filterNot { it in ingredientFilters }
+        keyword = ""
+        ingredientFilters.addAll(terms)
+        if (ingredientFilters.isEmpty()) {
+            scheduleSearch("")
+        } else {
+            searchByIngredients()
+        }
+    }
+
+    private fun removeIngredientFilter(term: String) {
+        ingredientFilters.remove(term)
+        if (ingredientFilters.isEmpty()) {
+            scheduleSearch(keyword.trim())
+        } else {
+            searchByIngredients()
+        }
+    }
+
+    private fun searchByIngredients() {
+        pendingSearchTask?.let { mainHandler.removeCallbacks(it) }
+        runningSearch?.cancel()
+        runningSearch = null
+        val currentVersion = ++searchVersion
+        val terms = ingredientFilters.toList()
+        tasks.read(TaskPriority.INTERACTIVE).execute {
+            // 筛选条件之间是“并且”：只返回同时包含全部食材的菜谱
+            val list = ingredientTermDao.findContainingAll(terms, terms.size) ?: emptyList()
+            runOnUiThread {
+                if (isFinishing || currentVersion != searchVersion) {
+                    return@runOnUiThread
+                }
+                searchResults.clear()
+                searchResults.addAll(list)
+                showResultPanel = true
+            }
+        }
     }
 
     private fun scheduleSearch(trimmedKeyword: String) {
         pendingSearchTask?.let { mainHandler.removeCallbacks(it) }
+        // 新关键词到来时中断仍在执行的旧查询，不再等它扫完再丢弃结果
+        runningSearch?.cancel()
+        runningSearch = null
         searchVersion++
         if (trimmedKeyword.isEmpty()) {
             searchResults.clear()
@@ -137,17 +196,26 @@ class SearchRecipeActivity : AppCompatActivity() {
         }
         val currentVersion = searchVersion
         pendingSearchTask = Runnable { doSearch(trimmedKeyword, currentVersion) }
-        mainHandler.postDelayed(pendingSearchTask!!, SEARCH_DEBOUNCE_MS)
+        // 追加输入可直接由上次结果过滤，不必等待防抖
+        val delay = if (recipeSearcher.canRefine(trimmedKeyword)) 0L else SEARCH_DEBOUNCE_MS
+        mainHandler.postDelayed(pendingSearchTask!!, delay)
     }
 
     private fun doSearch(trimmedKeyword: String, currentVersion: Int) {
-        val fuzzyKeyword = "%$trimmedKeyword%"
-        ioExecutor.execute {
-            val list = recipeDao.searchByKeyword(fuzzyKeyword) ?: emptyList()
+        val signal = CancellationSignal()
+        runningSearch = signal
+        tasks.read(TaskPriority.INTERACTIVE).execute {
+            val list = try {
+                signal.throwIfCanceled()
+                recipeSearcher.search(trimmedKeyword, signal)
+            } catch (e: OperationCanceledException) {
+                return@execute
+            }
             runOnUiThread {
                 if (isFinishing || currentVersion != searchVersion) {
                     return@runOnUiThread
                 }
+                runningSearch = null
                 searchResults.clear()
                 searchResults.addAll(list)
                 showResultPanel = true
@@ -155,7 +223,7 @@ class SearchRecipeActivity : AppCompatActivity() {
         }
     }
 
-    private fun openRecipeDetail(recipe: RecipeEntity) {
+    private fun openRecipeDetail(recipe: RecipeSummary) {
         val recipeId = recipe.id ?: return
         startActivity(RecipeDetailActivity.createIntent(this, recipeId))
     }
@@ -168,6 +236,8 @@ class SearchRecipeActivity : AppCompatActivity() {
     override fun onDestroy() {
         super.onDestroy()
         mainHandler.removeCallbacksAndMessages(null)
+        runningSearch?.cancel()
+        recipeSearcher.close()
     }
 }
 
@@ -175,12 +245,15 @@ class SearchRecipeActivity : AppCompatActivity() {
 private fun SearchRecipeScreen(
     keyword: String,
     showResultPanel: Boolean,
-    searchResults: List<RecipeEntity>,
+    searchResults: List<RecipeSummary>,
+    ingredientFilters: List<String>,
     formatUpdatedAt: (Long) -> String,
     onKeywordChange: (String) -> Unit,
+    onAddIngredientFilter: () -> Unit,
+    onRemoveIngredientFilter: (String) -> Unit,
     onBack: () -> Unit,
     onCancel: () -> Unit,
-    onRecipeClick: (RecipeEntity) -> Unit
+    onRecipeClick: (RecipeSummary) -> Unit
 ) {
     val keyboardController = LocalSoftwareKeyboardController.current
     val focusManager = LocalFocusManager.current
@@ -215,44 +288,109 @@ private fun SearchRecipeScreen(
             )
         }
     ) { paddingValues ->
-        Box(
+        Column(
             modifier = Modifier
                 .fillMaxSize()
                 .padding(paddingValues)
         ) {
-            if (showResultPanel) {
-                Card(
-                    modifier = Modifier
-                        .fillMaxSize()
-                        .padding(horizontal = 8.dp, vertical = 4.dp),
-                    shape = RoundedCornerShape(14.dp),
-                    colors = CardDefaults.cardColors(containerColor = MaterialTheme.colorScheme.surface)
-                ) {
-                    if (searchResults.isEmpty()) {
-                        EmptySearchState()
-                    } else {
-                        LazyColumn(
-                            modifier = Modifier.fillMaxSize(),
-                            contentPadding = androidx.compose.foundation.layout.PaddingValues(8.dp),
-                            verticalArrangement = Arrangement.spacedBy(8.dp)
-                        ) {
-                            items(items = searchResults, key = { it.id ?: it.hashCode().toLong() }) { recipe ->
-                                SearchResultItem(
-                                    recipe = recipe,
-                                    formattedTime = formatUpdatedAt(recipe.updatedAt),
-                                    onClick = { onRecipeClick(recipe) }
-                                )
+            if (ingredientFilters.isNotEmpty() || keyword.isNotBlank()) {
+                IngredientFilterBar(
+                    keyword = keyword.trim(),
+                    filters = ingredientFilters,
+                    onAdd = onAddIngredientFilter,
+                    onRemove = onRemoveIngredientFilter
+                )
+            }
+            Box(
+                modifier = Modifier
+                    .fillMaxWidth()
+                    .weight(1f)
+            ) {
+                if (showResultPanel) {
+                    Card(
+                        modifier = Modifier
+                            .fillMaxSize()
+                            .padding(horizontal = 8.dp, vertical = 4.dp),
+                        shape = RoundedCornerShape(14.dp),
+                        colors = CardDefaults.cardColors(containerColor = MaterialTheme.colorScheme.surface)
+                    ) {
+                        if (searchResults.isEmpty()) {
+                            EmptySearchState()
+                        } else {
+                            LazyColumn(
+                                modifier = Modifier.fillMaxSize(),
+                                contentPadding = androidx.compose.foundation.layout.PaddingValues(8.dp),
+                                verticalArrangement = Arrangement.spacedBy(8.dp)
+                            ) {
+                                items(items = searchResults, key = { it.id ?: it.hashCode().toLong() }) { recipe ->
+                                    SearchResultItem(
+                                        recipe = recipe,
+                                        formattedTime = formatUpdatedAt(recipe.updatedAt),
+                                        onClick = { onRecipeClick(recipe) }
+                                    )
+                                }
                             }
                         }
                     }
+                } else {
+                    Spacer(modifier = Modifier.fillMaxSize())
                 }
-            } else {
-                Spacer(modifier = Modifier.fillMaxSize())
             }
         }
     }
 }
 
+@Composable
+private fun IngredientFilterBar(
+    keyword: String,
+    filters: List<String>,
+    onAdd: () -> Unit,
+    onRemove: (String) -> Unit
+) {
+    LazyRow(
+        modifier = Modifier
+            .fillMaxWidth()
+            .padding(horizontal = 8.dp, vertical = 4.dp),
+        horizontalArrangement = Arrangement.spacedBy(8.dp)
+    ) {
+        items(items = filters, key = { it }) { term ->
+            FilterPill(
+                text = "$term ×",
+                contentDescription = stringResource(R.string.search_remove_ingredient_filter, term),
+                onClick = { onRemove(term) }
+            )
+        }
+        if (keyword.isNotEmpty()) {
+            item(key = "add") {
+                val text = stringResource(R.string.search_add_ingredient_filter, keyword)
+                FilterPill(
+                    text = "+ $text",
+                    contentDescription = text,
+                    onClick = onAdd
+                )
+            }
+        }
+    }
+}
+
+@Composable
+private fun FilterPill(
+    text: String,
+    contentDescription: String,
+    onClick: () -> Unit
+) {
+    Text(
+        text = text,
+        style = MaterialTheme.typography.bodyMedium,
+        color = MaterialTheme.colorScheme.onSecondaryContainer,
+        modifier = Modifier
+            .clip(RoundedCornerShape(16.dp))
+            .background(MaterialTheme.colorScheme.secondaryContainer)
+            .clickable(onClickLabel = contentDescription, onClick = onClick)
+            .padding(horizontal = 12.dp, vertical = 6.dp)
+    )
+}
+
 @OptIn(ExperimentalMaterial3Api::class)
 @Composable
 private fun SearchTopBar(
@@ -342,7 +480,7 @@ private fun SearchKeywordField(
 
 @Composable
 private fun SearchResultItem(
-    recipe: RecipeEntity,
+    recipe: RecipeSummary,
     formattedTime: String,
     onClick: () -> Unit
 ) {
@@ -358,9 +496,8 @@ private fun SearchResultItem(
     ) {
         RecipeThumb(
             imagePath = recipe.coverImagePath,
-            modifier = Modifier
-                .size(64.dp)
-                .clip(RoundedCornerShape(8.dp))
+            size = 64.dp,
+            modifier = Modifier.clip(RoundedCornerShape(8.dp))
         )
         Column(
             modifier = Modifier.weight(1f)
@@ -384,27 +521,26 @@ private fun SearchResultItem(
 @Composable
 private fun RecipeThumb(
     imagePath: String?,
+    size: Dp,
     modifier: Modifier = Modifier
 ) {
     val context = LocalContext.current
     val fallbackPainter = painterResource(id = R.drawable.ic_launcher_foreground)
-    val model = remember(imagePath) {
-        imagePath
-            ?.takeIf { it.isNotBlank() }
-            ?.let(::File)
-            ?.takeIf { it.exists() }
+    val sizePx = with(LocalDensity.current) { size.roundToPx() }
+    val model = rememberThumbnailFile(imagePath, sizePx)
+    val request = remember(model, sizePx) {
+        AppImageLoader.listThumbnail(context, model, sizePx)
     }
     AsyncImage(
-        model = ImageRequest.Builder(context)
-            .data(model)
-            .crossfade(true)
-            .build(),
+        model = request,
         contentDescription = null,
         contentScale = ContentScale.Crop,
         placeholder = fallbackPainter,
         error = fallbackPainter,
         fallback = fallbackPainter,
-        modifier = modifier.background(MaterialTheme.colorScheme.surfaceVariant)
+        modifier = modifier
+            .size(size)
+            .background(MaterialTheme.colorScheme.surfaceVariant)
     )
 }
 
@@ -0,0 +1,40 @@
+package com.dogcuisine.ui
+
+import android.util.LruCache
+import androidx.compose.runtime.Composable
+import androidx.compose.runtime.getValue
+import androidx.compose.runtime.produceState
+import androidx.compose.ui.platform.LocalContext
+import com.dogcuisine.ImageThumbnails
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.withContext
+import java.io.File
+
+// 已找到的缩略图，滚动回来的行不必再查文件；找不到时不记录，缩略图补齐后能用上
+private val resolvedThumbnails = LruCache<String, File>(512)
+
+/**
+ * 列表图要加载的文件：优先用 ImageThumbnails 里合适尺寸的缩略图，未生成时退回原图，原图不存在时为 null。
+ * 查找文件在 IO 线程进行，查找完成前为 null，AsyncImage 先显示占位图
+ */
+@Composable
+internal fun rememberThumbnailFile(imagePath: String?, sizePx: Int): File? {
+    val context = LocalContext.current.applicationContext
+    val key = "$sizePx:$imagePath"
+    val cached = resolvedThumbnails.get(key)
+    val file by produceState<File?>(initialValue = cached, key) {
+        value = cached ?: withContext(Dispatchers.IO) {
+            val image = imagePath
+                ?.takeIf { it.isNotBlank() }
+                ?.let(::File)
+                ?.takeIf { it.exists() }
+                ?: return@withContext null
+            ImageThumbnails.resolve(context, image, sizePx).also { resolved ->
+                if (resolved != image) {
+                    resolvedThumbnails.put(key, resolved)
+                }
+            }
+        }
+    }
+    return file
+}
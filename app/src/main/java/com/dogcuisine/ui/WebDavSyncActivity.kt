@@ -49,9 +49,9 @@ import androidx.compose.ui.text.input.VisualTransformation
 import androidx.compose.ui.unit.dp
 import com.dogcuisine.App
 import com.dogcuisine.R
+import com.dogcuisine.TaskScope
 import com.dogcuisine.sync.WebDavSyncConfig
 import com.dogcuisine.sync.WebDavSyncManager
-import java.util.concurrent.ExecutorService
 
 class WebDavSyncActivity : AppCompatActivity() {
 
@@ -61,7 +61,7 @@ class WebDavSyncActivity : AppCompatActivity() {
         }
     }
 
-    private lateinit var ioExecutor: ExecutorService
+    private lateinit var tasks: TaskScope
     private lateinit var loadingDialogHelper: LoadingDialogHelper
 
     private var isSyncing by mutableStateOf(false)
@@ -87,7 +87,7 @@ class WebDavSyncActivity : AppCompatActivity() {
         })
 
         val app = App.getInstance()
-        ioExecutor = app.ioExecutor()
+        tasks = app.executors().scope(this)
         loadingDialogHelper = LoadingDialogHelper(this)
         loadConfig()
         if (syncStatus.isBlank()) {
@@ -136,7 +136,7 @@ class WebDavSyncActivity : AppCompatActivity() {
         }
         saveConfig(url, user, pass)
         setLoading(true, getString(R.string.webdav_uploading))
-        ioExecutor.execute {
+        tasks.bulk().execute {
             try {
                 WebDavSyncManager(this).upload(url, user, pass)
                 runOnUiThread {
@@ -171,7 +171,7 @@ class WebDavSyncActivity : AppCompatActivity() {
         }
         saveConfig(url, user, pass)
         setLoading(true, getString(R.string.webdav_restoring))
-        ioExecutor.execute {
+        tasks.bulk().execute {
             try {
                 WebDavSyncManager(this).downloadAndRestore(url, user, pass)
                 runOnUiThread {
@@ -210,7 +210,7 @@ class WebDavSyncActivity : AppCompatActivity() {
         isVerifying = true
         verifyResult = null
         syncStatus = getString(R.string.webdav_verifying)
-        ioExecutor.execute {
+        tasks.bulk().execute {
             try {
                 val result = WebDavSyncManager(this).verify(url, user, pass)
                 runOnUiThread {
@@ -0,0 +1,39 @@
+package com.dogcuisine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class ImageThumbnailsTest {
+
+    @Test
+    public void candidateSizes_smallestThatCoversTheDisplayFirst() {
+        assertEquals(Arrays.asList(128, 256, 384), ImageThumbnails.candidateSizes(96));
+        assertEquals(Arrays.asList(256, 384), ImageThumbnails.candidateSizes(192));
+        // 64dp 在 xxxhdpi 下正好 256
+        assertEquals(Arrays.asList(256, 384), ImageThumbnails.candidateSizes(256));
+    }
+
+    @Test
+    public void candidateSizes_74dpAtXxxhdpiUsesLargerVariant() {
+        // 74dp x 4 = 296px：384 优先，尚未生成时 256 足够接近
+        assertEquals(Arrays.asList(384, 256), ImageThumbnails.candidateSizes(296));
+    }
+
+    @Test
+    public void candidateSizes_closeEnoughSmallerVariantsFromLargest() {
+        assertEquals(Collections.singletonList(384), ImageThumbnails.candidateSizes(400));
+        assertEquals(Collections.singletonList(384), ImageThumbnails.candidateSizes(512));
+        assertEquals(Arrays.asList(384, 256), ImageThumbnails.candidateSizes(340));
+    }
+
+    @Test
+    public void candidateSizes_emptyWhenEveryVariantIsTooSmall() {
+        // 都比显示尺寸小太多，放大会糊，直接用原图
+        assertTrue(ImageThumbnails.candidateSizes(513).isEmpty());
+        assertTrue(ImageThumbnails.candidateSizes(1080).isEmpty());
+    }
+}
@@ -0,0 +1,152 @@
+package com.dogcuisine;
+
+import com.dogcuisine.data.RecipeFlags;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import static org.junit.Assert.*;
+
+/**
+ * 写线程和主线程延时都由测试手动推进
+ */
+public class RecipeFlagWriterTest {
+
+    private final Queue<Runnable> writes = new ArrayDeque<>();
+    private final Map<Runnable, Long> scheduled = new HashMap<>();
+    private final List<Map<Long, RecipeFlags>> batches = new ArrayList<>();
+    private boolean failNext;
+    private RecipeFlagWriter writer;
+
+    @Before
+    public void setUp() {
+        RecipeFlagWriter.Store store = batch -> {
+            batches.add(new LinkedHashMap<>(batch));
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("disk full");
+            }
+        };
+        RecipeFlagWriter.Scheduler scheduler = new RecipeFlagWriter.Scheduler() {
+            @Override
+            public void schedule(Runnable task, long delayMs) {
+                scheduled.put(task, delayMs);
+            }
+
+            @Override
+            public void cancel(Runnable task) {
+                scheduled.remove(task);
+            }
+        };
+        writer = new RecipeFlagWriter(store, writes::add, scheduler);
+    }
+
+    @Test
+    public void changesAreCoalescedIntoOneBatch() {
+        writer.setFavorite(1, true);
+        writer.setRating(1, 3);
+        writer.setFavorite(1, false);
+        writer.setRating(2, 5);
+        assertEquals(1, scheduled.size());
+
+        runScheduled();
+        runWrites();
+
+        assertEquals(1, batches.size());
+        Map<Long, RecipeFlags> expected = new LinkedHashMap<>();
+        expected.put(1L, new RecipeFlags(0, 3));
+        expected.put(2L, new RecipeFlags(null, 5));
+        assertEquals(expected, batches.get(0));
+        assertNull(writer.getPendingFavorite(1));
+        assertNull(writer.getPendingRating(2));
+    }
+
+    @Test
+    public void failedBatchStaysPendingAndIsRetried() {
+        writer.setFavorite(1, true);
+        failNext = true;
+        writer.flush();
+        runWrites();
+
+        assertEquals(1, batches.size());
+        assertEquals(Integer.valueOf(1), writer.getPendingFavorite(1));
+        assertEquals(1, scheduled.size());
+
+        runScheduled();
+        runWrites();
+
+        assertEquals(2, batches.size());
+        assertEquals(Collections.singletonMap(1L, new RecipeFlags(1, null)), batches.get(1));
+        assertNull(writer.getPendingFavorite(1));
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    public void newerChangeWinsOverFailedBatch() {
+        writer.setRating(1, 2);
+        failNext = true;
+        writer.flush();
+        writer.setRating(1, 4);
+        runWrites();
+
+        assertEquals(Integer.valueOf(4), writer.getPendingRating(1));
+        writer.flush();
+        runWrites();
+        assertEquals(Collections.singletonMap(1L, new RecipeFlags(null, 4)), batches.get(1));
+    }
+
+    @Test
+    public void inFlightRowsAreNotWrittenAgain() {
+        writer.setFavorite(1, true);
+        writer.flush();
+        // 第一批还在写入，期间再次 flush 只记下请求
+        writer.setRating(2, 5);
+        writer.flush();
+        assertEquals(1, writes.size());
+        assertEquals(Integer.valueOf(1), writer.getPendingFavorite(1));
+
+        runWrites();
+
+        assertEquals(2, batches.size());
+        assertEquals(Collections.singletonMap(1L, new RecipeFlags(1, null)), batches.get(0));
+        assertEquals(Collections.singletonMap(2L, new RecipeFlags(null, 5)), batches.get(1));
+    }
+
+    @Test
+    public void changeDuringWriteBuildsOnInFlightValue() {
+        writer.setFavorite(1, true);
+        writer.flush();
+        writer.setRating(1, 3);
+
+        assertEquals(Integer.valueOf(1), writer.getPendingFavorite(1));
+        assertEquals(Integer.valueOf(3), writer.getPendingRating(1));
+        runWrites();
+        runScheduled();
+        runWrites();
+        assertEquals(new RecipeFlags(1, 3), batches.get(1).get(1L));
+    }
+
+    private void runWrites() {
+        Runnable task;
+        while ((task = writes.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void runScheduled() {
+        List<Runnable> tasks = new ArrayList<>(scheduled.keySet());
+        scheduled.clear();
+        for (Runnable task : tasks) {
+            task.run();
+        }
+    }
+}
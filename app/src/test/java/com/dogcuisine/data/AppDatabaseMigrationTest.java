@@ -0,0 +1,144 @@
+package com.dogcuisine.data;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * 在旧版本的表结构上执行 {@link AppDatabase} 的迁移，迁移后的表与索引应与按当前实体新建的一致，
+ * 否则 Room 打开数据库时的结构校验会失败
+ */
+public class AppDatabaseMigrationTest {
+
+    // 迁移 8→9 建列表索引之前 recipes 已有的列（v8）
+    private static final String RECIPES_V8 = "CREATE TABLE `recipes` (`id` INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "`name` TEXT, `created_at` INTEGER NOT NULL, `updated_at` INTEGER NOT NULL, `content` TEXT, " +
+            "`cover_image_path` TEXT, `steps_json` TEXT, `ingredient_json` TEXT NOT NULL DEFAULT '', " +
+            "`category_id` INTEGER, `is_favorite` INTEGER NOT NULL DEFAULT 0, `rating` INTEGER NOT NULL DEFAULT 0)";
+
+    private TestDatabase db;
+
+    @Before
+    public void setUp() throws SQLException {
+        db = TestDatabase.empty();
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        db.close();
+    }
+
+    @Test
+    public void migrate12To13_listIndexesMatchFreshSchema() throws SQLException {
+        db.execute(RECIPES_V8);
+        AppDatabase.MIGRATION_8_9.migrate(db.support());
+        assertTrue(indexes(db, "recipes").containsKey("index_recipes_category_id_updated_at_name_cover_image_path"));
+
+        AppDatabase.MIGRATION_12_13.migrate(db.support());
+
+        try (TestDatabase fresh = TestDatabase.create()) {
+            assertEquals(indexes(fresh, "recipes"), indexes(db, "recipes"));
+        }
+    }
+
+    @Test
+    public void migrate12To13_pageQueriesUseNewIndexes() throws SQLException {
+        db.execute(RECIPES_V8);
+        AppDatabase.MIGRATION_8_9.migrate(db.support());
+        AppDatabase.MIGRATION_12_13.migrate(db.support());
+
+        Map<String, Object> args = new HashMap<>();
+        args.put("categoryId", 1L);
+        args.put("rating", 3);
+        args.put("afterUpdatedAt", Long.MAX_VALUE);
+        args.put("afterId", Long.MAX_VALUE);
+        args.put("limit", 30);
+        Map<String, String> expected = new HashMap<>();
+        expected.put(RecipeDao.CATEGORY_SUMMARY_PAGE_QUERY, "index_recipes_category_id_updated_at_id_name_cover_image_path");
+        expected.put(RecipeDao.FAVORITE_SUMMARY_PAGE_QUERY, "index_recipes_is_favorite_updated_at_id_name_cover_image_path");
+        expected.put(RecipeDao.RATING_SUMMARY_PAGE_QUERY, "index_recipes_rating_updated_at_id_name_cover_image_path");
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            String plan = db.queryPlan(entry.getKey(), args);
+            assertTrue(plan, plan.contains("USING COVERING INDEX " + entry.getValue()));
+            assertFalse(plan, plan.contains("TEMP B-TREE"));
+        }
+    }
+
+    @Test
+    public void migrate14To15_backfillsImageRefsFromCoversIngredientsAndSteps() throws SQLException {
+        db.execute(RECIPES_V8);
+        addLegacyRecipe(1, "/images/cover_1.jpg", "/images/ingredient_1.jpg", "/images/step_1.jpg", "/images/shared.jpg");
+        addLegacyRecipe(2, null, null, "/images/shared.jpg");
+        // 13→14 把 steps_json 拆到 recipe_images，14→15 再据此回填引用
+        AppDatabase.MIGRATION_13_14.migrate(db.support());
+        AppDatabase.MIGRATION_14_15.migrate(db.support());
+
+        try (TestDatabase fresh = TestDatabase.create()) {
+            assertEquals(indexes(fresh, "image_refs"), indexes(db, "image_refs"));
+        }
+        assertEquals(Arrays.asList(
+                "/images/cover_1.jpg 1", "/images/ingredient_1.jpg 1", "/images/shared.jpg 1",
+                "/images/shared.jpg 2", "/images/step_1.jpg 1"), imageRefs());
+    }
+
+    private void addLegacyRecipe(long id, String cover, String ingredientImage, String... stepImages)
+            throws SQLException {
+        StepItem ingredient = new StepItem("", ingredientImage == null
+                ? Collections.emptyList() : Collections.singletonList(ingredientImage));
+        List<StepItem> steps = new ArrayList<>();
+        for (String path : stepImages) {
+            steps.add(new StepItem("步骤", Collections.singletonList(path)));
+        }
+        try (PreparedStatement insert = db.bind("INSERT INTO recipes " +
+                        "(id, name, created_at, updated_at, cover_image_path, steps_json, ingredient_json) " +
+                        "VALUES (?, ?, 0, 0, ?, ?, ?)", id, "菜谱" + id, cover,
+                StepCodec.getInstance().encodeList(steps), StepCodec.getInstance().encodeItem(ingredient))) {
+            insert.executeUpdate();
+        }
+    }
+
+    private List<String> imageRefs() throws SQLException {
+        List<String> refs = new ArrayList<>();
+        try (PreparedStatement query = db.bind("SELECT path, recipe_id FROM image_refs ORDER BY path, recipe_id");
+             ResultSet rows = query.executeQuery()) {
+            while (rows.next()) {
+                refs.add(rows.getString(1) + " " + rows.getLong(2));
+            }
+        }
+        return refs;
+    }
+
+    // 索引名 -> 列名（按索引中的顺序）
+    private static Map<String, List<String>> indexes(TestDatabase database, String table) throws SQLException {
+        Map<String, List<String>> indexes = new TreeMap<>();
+        try (PreparedStatement list = database.bind(
+                "SELECT name FROM sqlite_master WHERE type = 'index' AND tbl_name = ?", table);
+             ResultSet names = list.executeQuery()) {
+            while (names.next()) {
+                String name = names.getString(1);
+                List<String> columns = new ArrayList<>();
+                try (PreparedStatement info = database.bind("SELECT name FROM pragma_index_info(?) ORDER BY seqno", name);
+                     ResultSet rows = info.executeQuery()) {
+                    while (rows.next()) {
+                        columns.add(rows.getString(1));
+                    }
+                }
+                indexes.put(name, columns);
+            }
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,248 @@
+package com.dogcuisine.data;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * 用内存中的假 DAO 验证 {@link CategoryDao#saveAll} 的比对逻辑：只写入真正变化的行
+ */
+public class CategoryDaoSaveAllTest {
+
+    private static final int EXISTING_COUNT = 500;
+
+    private FakeCategoryDao dao;
+    // 编辑页载入时的分类 id
+    private List<Long> loadedIds;
+
+    @Before
+    public void setUp() {
+        dao = new FakeCategoryDao();
+        for (int i = 0; i < EXISTING_COUNT; i++) {
+            dao.rows.put((long) (i + 1), new CategoryEntity((long) (i + 1), "分类" + i, i));
+        }
+        loadedIds = new ArrayList<>(dao.rows.keySet());
+    }
+
+    @Test
+    public void saveAll_unchangedListWritesNothing() {
+        dao.saveAll(loadedIds, copyOf(dao.getAll()));
+
+        assertEquals(0, dao.deleted.size());
+        assertEquals(0, dao.updated.size());
+        assertEquals(0, dao.inserted.size());
+        assertEquals(0, dao.writeCalls);
+    }
+
+    @Test
+    public void saveAll_reorderDeleteRenameAndInsertInOneBatch() {
+        List<CategoryEntity> edited = copyOf(dao.getAll());
+        // 删除 id 为 3 的倍数的分类
+        edited.removeIf(c -> c.getId() % 3 == 0);
+        // 把最后一个分类挪到最前
+        edited.add(0, edited.remove(edited.size() - 1));
+        // 改名 10 个
+        for (int i = 100; i < 110; i++) {
+            edited.get(i).setName("改名" + i);
+        }
+        // 新增 40 个
+        for (int i = 0; i < 40; i++) {
+            edited.add(new CategoryEntity(null, "新分类" + i, 0));
+        }
+        for (int i = 0; i < edited.size(); i++) {
+            edited.get(i).setSortOrder(i);
+        }
+
+        Set<Long> expectedDeletes = new HashSet<>();
+        for (long id = 1; id <= EXISTING_COUNT; id++) {
+            if (id % 3 == 0) {
+                expectedDeletes.add(id);
+            }
+        }
+        int expectedUpdates = 0;
+        for (CategoryEntity category : edited) {
+            CategoryEntity before = category.getId() != null ? dao.rows.get(category.getId()) : null;
+            if (before != null && (!before.getName().equals(category.getName())
+                    || before.getSortOrder() != category.getSortOrder())) {
+                expectedUpdates++;
+            }
+        }
+
+        dao.saveAll(loadedIds, edited);
+
+        assertEquals(expectedDeletes, new HashSet<>(dao.deleted));
+        assertEquals(expectedUpdates, dao.updated.size());
+        assertEquals(40, dao.inserted.size());
+        // 每种写入各一次批量调用
+        assertEquals(3, dao.writeCalls);
+
+        List<CategoryEntity> saved = dao.getAll();
+        assertEquals(edited.size(), saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            assertEquals(edited.get(i).getName(), saved.get(i).getName());
+            assertEquals(i, saved.get(i).getSortOrder());
+        }
+    }
+
+    @Test
+    public void saveAll_onlyWritesRowsThatChanged() {
+        List<CategoryEntity> edited = copyOf(dao.getAll());
+        // 交换前两个，其余不动
+        Collections.swap(edited, 0, 1);
+        edited.get(0).setSortOrder(0);
+        edited.get(1).setSortOrder(1);
+
+        dao.saveAll(loadedIds, edited);
+
+        assertEquals(2, dao.updated.size());
+        assertEquals(Long.valueOf(2), dao.updated.get(0).getId());
+        assertEquals(Long.valueOf(1), dao.updated.get(1).getId());
+        assertTrue(dao.deleted.isEmpty());
+        assertTrue(dao.inserted.isEmpty());
+    }
+
+    @Test
+    public void saveAll_unknownIdIsInsertedAndEmptyListDeletesAll() {
+        List<CategoryEntity> edited = copyOf(dao.getAll());
+        edited.add(new CategoryEntity(10_000L, "已被其他设备删除", EXISTING_COUNT));
+
+        dao.saveAll(loadedIds, edited);
+
+        assertEquals(1, dao.inserted.size());
+        assertEquals(Long.valueOf(10_000L), dao.inserted.get(0).getId());
+
+        List<Long> reloadedIds = new ArrayList<>(dao.rows.keySet());
+        dao.saveAll(reloadedIds, new ArrayList<>());
+
+        assertEquals(EXISTING_COUNT + 1, dao.deleted.size());
+        assertTrue(dao.getAll().isEmpty());
+    }
+
+    @Test
+    public void saveAll_keepsCategoriesAddedAfterTheEditorLoaded() {
+        List<CategoryEntity> edited = copyOf(dao.getAll());
+        // 编辑期间恢复备份或同步新增了两个分类，编辑页并不知道
+        dao.rows.put(9_001L, new CategoryEntity(9_001L, "同步来的分类", EXISTING_COUNT));
+        dao.rows.put(9_002L, new CategoryEntity(9_002L, "恢复的分类", EXISTING_COUNT + 1));
+        // 编辑页删掉前 10 个
+        edited.subList(0, 10).clear();
+
+        dao.saveAll(loadedIds, edited);
+
+        assertEquals(10, dao.deleted.size());
+        for (long id = 1; id <= 10; id++) {
+            assertTrue(dao.deleted.contains(id));
+        }
+        assertNotNull(dao.getById(9_001L));
+        assertNotNull(dao.getById(9_002L));
+        assertEquals(EXISTING_COUNT - 10 + 2, dao.getAll().size());
+    }
+
+    @Test
+    public void saveAll_ignoresLoadedCategoriesAlreadyDeletedElsewhere() {
+        List<CategoryEntity> edited = copyOf(dao.getAll());
+        edited.remove(0);
+        // 编辑期间 id 为 1 和 2 的分类已被同步删除
+        dao.rows.remove(1L);
+        dao.rows.remove(2L);
+
+        dao.saveAll(loadedIds, edited);
+
+        // id 1 只需删除，但已不存在；id 2 仍在列表里，按新分类重新插入
+        assertTrue(dao.deleted.isEmpty());
+        assertEquals(1, dao.inserted.size());
+        assertEquals(Long.valueOf(2L), dao.inserted.get(0).getId());
+    }
+
+    private static List<CategoryEntity> copyOf(List<CategoryEntity> categories) {
+        List<CategoryEntity> copy = new ArrayList<>(categories.size());
+        for (CategoryEntity category : categories) {
+            copy.add(new CategoryEntity(category.getId(), category.getName(), category.getSortOrder()));
+        }
+        return copy;
+    }
+
+    private static final class FakeCategoryDao implements CategoryDao {
+        final Map<Long, CategoryEntity> rows = new TreeMap<>();
+        final List<Long> deleted = new ArrayList<>();
+        final List<CategoryEntity> updated = new ArrayList<>();
+        final List<CategoryEntity> inserted = new ArrayList<>();
+        int writeCalls;
+        long nextId = 100_000L;
+
+        @Override
+        public List<CategoryEntity> getAll() {
+            List<CategoryEntity> all = new ArrayList<>();
+            for (CategoryEntity row : rows.values()) {
+                all.add(new CategoryEntity(row.getId(), row.getName(), row.getSortOrder()));
+            }
+            all.sort((a, b) -> a.getSortOrder() != b.getSortOrder()
+                    ? Integer.compare(a.getSortOrder(), b.getSortOrder())
+                    : Long.compare(a.getId(), b.getId()));
+            return all;
+        }
+
+        @Override
+        public void deleteByIds(List<Long> ids) {
+            writeCalls++;
+            for (Long id : ids) {
+                assertNotNull("deleting missing row " + id, rows.remove(id));
+                deleted.add(id);
+            }
+        }
+
+        @Override
+        public int updateAll(List<CategoryEntity> categories) {
+            writeCalls++;
+            for (CategoryEntity category : categories) {
+                assertTrue("updating missing row " + category.getId(), rows.containsKey(category.getId()));
+                rows.put(category.getId(), category);
+                updated.add(category);
+            }
+            return categories.size();
+        }
+
+        @Override
+        public List<Long> insertNew(List<CategoryEntity> categories) {
+            writeCalls++;
+            List<Long> ids = new ArrayList<>();
+            for (CategoryEntity category : categories) {
+                long id = category.getId() != null ? category.getId() : nextId++;
+                assertFalse("inserting duplicate row " + id, rows.containsKey(id));
+                rows.put(id, new CategoryEntity(id, category.getName(), category.getSortOrder()));
+                inserted.add(category);
+                ids.add(id);
+            }
+            return ids;
+        }
+
+        @Override
+        public List<Long> insertAll(List<CategoryEntity> categories) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long insert(CategoryEntity category) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CategoryEntity getById(long id) {
+            return rows.get(id);
+        }
+
+        @Override
+        public long count() {
+            return rows.size();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.dogcuisine.data;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 解码基准：在当前线程上重复执行解码，统计每次的耗时与分配字节数。
+ * 分配量来自 {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}，
+ * 预热后取多轮中的最小值，减少 JIT 与 GC 的干扰
+ */
+final class DecodeBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // 防止解码结果被优化掉
+    private static int sink;
+
+    private DecodeBenchmark() {
+    }
+
+    static boolean isSupported() {
+        return THREADS.isThreadAllocatedMemorySupported();
+    }
+
+    static Result measure(String name, int iterations, Supplier<?> decode) {
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            run(iterations, decode);
+        }
+        double bestNanos = Double.MAX_VALUE;
+        double bestBytes = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            run(iterations, decode);
+            long elapsed = System.nanoTime() - start;
+            long allocated = THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+            bestNanos = Math.min(bestNanos, (double) elapsed / iterations);
+            bestBytes = Math.min(bestBytes, (double) allocated / iterations);
+        }
+        Result result = new Result(bestNanos, bestBytes);
+        System.out.printf("%-28s %10.0f ns/op %10.0f B/op%n", name, result.nanosPerOp, result.bytesPerOp);
+        return result;
+    }
+
+    private static void run(int iterations, Supplier<?> decode) {
+        for (int i = 0; i < iterations; i++) {
+            Object value = decode.get();
+            sink += value instanceof List ? ((List<?>) value).size() : value.hashCode();
+        }
+    }
+
+    /**
+     * 一道家常菜的食材：十余行文字和一张图片
+     */
+    static StepItem ingredient() {
+        return new StepItem("五花肉 500g\n冰糖 30g\n生抽 2勺\n老抽 1勺\n料酒 2勺\n葱 2根\n姜 3片\n"
+                + "八角 2个\n桂皮 1小块\n香叶 2片\n干辣椒 3个\n盐适量\n开水没过肉",
+                Arrays.asList(imagePath("ingredient", 0)));
+    }
+
+    /**
+     * 八个步骤，每步几十字，部分步骤带一到两张图片
+     */
+    static List<StepItem> steps() {
+        String[] texts = {
+                "五花肉切成三厘米见方的块，冷水下锅，加姜片和料酒焯水，撇去浮沫后捞出洗净沥干。",
+                "锅中放少许油，小火放入冰糖慢慢炒化，炒至枣红色冒小泡，注意不要炒糊，否则会发苦。",
+                "倒入五花肉快速翻炒，让每一块肉都均匀裹上糖色，炒到表面微微焦黄出油。",
+                "加入葱段、姜片、八角、桂皮、香叶和干辣椒，炒出香味后沿锅边淋入料酒。",
+                "加入生抽和老抽翻炒上色，倒入开水没过肉块，大火烧开后转小火加盖炖煮一小时。",
+                "中途翻动一两次防止粘锅，汤汁不够时补少量开水，不要加冷水以免肉质发紧。",
+                "炖到筷子能轻松插入肉块时加盐调味，开盖转大火收汁，边收边翻动让汤汁均匀包裹。",
+                "汤汁浓稠发亮即可关火，挑出香料装盘，撒少许葱花点缀，趁热配米饭食用。"
+        };
+        List<StepItem> steps = new ArrayList<>(texts.length);
+        for (int i = 0; i < texts.length; i++) {
+            List<String> images = new ArrayList<>();
+            for (int p = 0; p < i % 3; p++) {
+                images.add(imagePath("step" + i, p));
+            }
+            steps.add(new StepItem(texts[i], images));
+        }
+        return steps;
+    }
+
+    private static String imagePath(String prefix, int index) {
+        return "/data/user/0/com.dogcuisine/files/images/" + prefix + "_1712345678901_" + index + ".jpg";
+    }
+
+    static final class Result {
+        final double nanosPerOp;
+        final double bytesPerOp;
+
+        Result(double nanosPerOp, double bytesPerOp) {
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+    }
+}
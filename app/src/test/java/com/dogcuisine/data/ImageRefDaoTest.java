@@ -0,0 +1,101 @@
+package com.dogcuisine.data;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 在 JVM 上的 SQLite 中执行 {@link ImageRefDao} 的查询，引用行由 {@link ImageRefs#buildRows} 生成
+ */
+public class ImageRefDaoTest {
+
+    private TestDatabase db;
+
+    @Before
+    public void setUp() throws SQLException {
+        db = TestDatabase.create();
+        // 1 与 2 共用一张步骤图，3 复用 1 的封面
+        addRecipe(1, "/images/cover_1.jpg", Collections.singletonList("/images/ingredient_1.jpg"),
+                Arrays.asList("/images/step_1a.jpg", "/images/shared.jpg"));
+        addRecipe(2, null, Collections.emptyList(),
+                Arrays.asList("/images/shared.jpg", "/images/step_2.jpg"));
+        addRecipe(3, "/images/cover_1.jpg", Collections.emptyList(), Collections.emptyList());
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        db.close();
+    }
+
+    @Test
+    public void referencedPaths_listsEachPathOnce() throws SQLException {
+        List<Object> paths = db.queryColumn(ImageRefDao.REFERENCED_PATHS_QUERY, new HashMap<>(), "path");
+
+        assertEquals(Arrays.asList("/images/cover_1.jpg", "/images/ingredient_1.jpg", "/images/shared.jpg",
+                "/images/step_1a.jpg", "/images/step_2.jpg"), sorted(paths));
+    }
+
+    @Test
+    public void referencedPaths_readOnlyThePrimaryKey() throws SQLException {
+        String plan = db.queryPlan(ImageRefDao.REFERENCED_PATHS_QUERY, new HashMap<>());
+
+        assertTrue(plan, plan.contains("COVERING INDEX sqlite_autoindex_image_refs_1"));
+        assertFalse(plan, plan.contains("TEMP B-TREE"));
+    }
+
+    @Test
+    public void exclusivePaths_skipImagesOtherRecipesStillUse() throws SQLException {
+        assertEquals(Arrays.asList("/images/ingredient_1.jpg", "/images/step_1a.jpg"), exclusivePaths(1));
+        assertEquals(Collections.singletonList("/images/step_2.jpg"), exclusivePaths(2));
+        assertTrue(exclusivePaths(3).isEmpty());
+    }
+
+    @Test
+    public void exclusivePaths_freedOnceTheLastReferenceIsDeleted() throws SQLException {
+        db.execute("DELETE FROM image_refs WHERE recipe_id = 1");
+
+        assertEquals(Arrays.asList("/images/shared.jpg", "/images/step_2.jpg"), exclusivePaths(2));
+        assertEquals(Collections.singletonList("/images/cover_1.jpg"), exclusivePaths(3));
+    }
+
+    private List<Object> exclusivePaths(long recipeId) throws SQLException {
+        Map<String, Object> args = new HashMap<>();
+        args.put("recipeId", recipeId);
+        return sorted(db.queryColumn(ImageRefDao.EXCLUSIVE_PATHS_QUERY, args, "path"));
+    }
+
+    private void addRecipe(long id, String cover, List<String> ingredientImages, List<String> stepImages)
+            throws SQLException {
+        String ingredientJson = StepCodec.getInstance().encodeItem(new StepItem("", ingredientImages));
+        RecipeEntity recipe = new RecipeEntity(id, "菜谱" + id, 0, id, null, cover, null, ingredientJson, null, 0, 0);
+        List<StepItem> steps = new ArrayList<>();
+        for (String path : stepImages) {
+            steps.add(new StepItem("步骤", Collections.singletonList(path)));
+        }
+        try (PreparedStatement insert = db.connection.prepareStatement(
+                "INSERT INTO image_refs (path, recipe_id) VALUES (?, ?)")) {
+            for (ImageRefEntity row : ImageRefs.buildRows(id, recipe, steps)) {
+                insert.setString(1, row.getPath());
+                insert.setLong(2, row.getRecipeId());
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    private static List<Object> sorted(List<Object> paths) {
+        List<Object> copy = new ArrayList<>(paths);
+        copy.sort((a, b) -> ((String) a).compareTo((String) b));
+        return copy;
+    }
+}
@@ -0,0 +1,88 @@
+package com.dogcuisine.data;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 在 JVM 上的 SQLite 中执行 {@link IngredientTermDao#ALL_TERMS_QUERY}，词表由 {@link IngredientTerms} 生成
+ */
+public class IngredientTermDaoTest {
+
+    private TestDatabase db;
+
+    @Before
+    public void setUp() throws SQLException {
+        db = TestDatabase.create();
+        addRecipe(1, "番茄炒蛋", 100, "2个鸡蛋、番茄 2个\n盐适量");
+        addRecipe(2, "鸡蛋羹", 200, "鸡蛋3个 温水200ml 盐少许");
+        addRecipe(3, "红烧肉", 300, "300g五花肉 冰糖 生抽两勺");
+        addRecipe(4, "番茄牛腩", 400, "牛腩500g、番茄3个、盐");
+        addRecipe(5, "番茄蛋汤", 100, "番茄 鸡蛋 葱");
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        db.close();
+    }
+
+    @Test
+    public void findContainingAll_returnsOnlyRecipesWithEveryTerm() throws SQLException {
+        assertEquals(Arrays.asList(5L, 1L), find("番茄", "鸡蛋"));
+        assertEquals(Collections.singletonList(1L), find("番茄", "鸡蛋", "盐"));
+        assertEquals(Arrays.asList(4L, 1L), find("番茄", "盐"));
+    }
+
+    @Test
+    public void findContainingAll_singleTermOrderedByUpdatedAt() throws SQLException {
+        assertEquals(Arrays.asList(4L, 5L, 1L), find("番茄"));
+        // 用量写在前面的食材也被收录
+        assertEquals(Collections.singletonList(3L), find("五花肉"));
+    }
+
+    @Test
+    public void findContainingAll_emptyWhenAnyTermIsMissing() throws SQLException {
+        assertTrue(find("番茄", "五花肉").isEmpty());
+        assertTrue(find("土豆").isEmpty());
+    }
+
+    @Test
+    public void findContainingAll_usesTermPrimaryKey() throws SQLException {
+        Map<String, Object> args = new HashMap<>();
+        args.put("terms", Arrays.asList("番茄", "鸡蛋"));
+        args.put("termCount", 2);
+        String plan = db.queryPlan(IngredientTermDao.ALL_TERMS_QUERY, args);
+        assertTrue(plan, plan.contains("SEARCH recipe_ingredient_terms USING"));
+        assertTrue(plan, plan.contains("(term=?"));
+    }
+
+    private List<Long> find(String... terms) throws SQLException {
+        Map<String, Object> args = new HashMap<>();
+        args.put("terms", Arrays.asList(terms));
+        args.put("termCount", terms.length);
+        return db.queryIds(IngredientTermDao.ALL_TERMS_QUERY, args);
+    }
+
+    private void addRecipe(long id, String name, long updatedAt, String ingredient) throws SQLException {
+        db.execute("INSERT INTO recipes (id, name, created_at, updated_at) VALUES (" + id + ", '" + name + "', 0, "
+                + updatedAt + ")");
+        try (PreparedStatement insert = db.connection.prepareStatement(
+                "INSERT INTO recipe_ingredient_terms (term, recipe_id) VALUES (?, ?)")) {
+            for (String term : IngredientTerms.extract(ingredient)) {
+                insert.setString(1, term);
+                insert.setLong(2, id);
+                insert.executeUpdate();
+            }
+        }
+    }
+}
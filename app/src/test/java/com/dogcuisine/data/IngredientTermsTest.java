@@ -0,0 +1,68 @@
+package com.dogcuisine.data;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class IngredientTermsTest {
+
+    @Test
+    public void extract_splitsOnSeparatorsAndDropsQuantities() {
+        assertEquals(Arrays.asList("鸡蛋", "番茄", "盐"), IngredientTerms.extract("鸡蛋2个、番茄 3个\n盐适量"));
+        assertEquals(Arrays.asList("五花肉", "冰糖", "生抽"),
+                IngredientTerms.extract("五花肉500g；冰糖（少许）/ 生抽：两勺"));
+    }
+
+    @Test
+    public void extract_digitStartsTheQuantity() {
+        // 数字及其后的内容都是用量，全角数字和分数也算
+        assertEquals(Collections.singletonList("牛奶"), IngredientTerms.extract("牛奶250ml左右"));
+        assertEquals(Collections.singletonList("面粉"), IngredientTerms.extract("面粉２００克"));
+        assertEquals(Collections.singletonList("黄油"), IngredientTerms.extract("黄油½块"));
+    }
+
+    @Test
+    public void extract_quantityWrittenFirst() {
+        assertEquals(Arrays.asList("鸡蛋", "五花肉", "洋葱", "生抽"),
+                IngredientTerms.extract("2个鸡蛋、300g五花肉\n½个洋葱 1勺生抽"));
+        assertEquals(Arrays.asList("盐", "牛奶", "豆腐"), IngredientTerms.extract("１０克盐 250ml牛奶 3豆腐"));
+        // 前后都有用量时两头都去掉
+        assertEquals(Collections.singletonList("鸡蛋"), IngredientTerms.extract("2个鸡蛋约100g"));
+        assertEquals(Collections.singletonList("排骨"), IngredientTerms.extract("排骨（约500g）"));
+        // 只去掉紧跟数字的单位，食材名里的字母保留
+        assertEquals(Collections.singletonList("lemon"), IngredientTerms.extract("2lemon"));
+    }
+
+    @Test
+    public void extract_wordQuantities() {
+        assertEquals(Arrays.asList("大蒜", "葱", "香菜"), IngredientTerms.extract("大蒜三瓣 葱一根 香菜可选"));
+        assertEquals(Collections.singletonList("胡椒粉"), IngredientTerms.extract("胡椒粉 少许"));
+        // 只有用量的片段不产生食材词
+        assertTrue(IngredientTerms.extract("适量，少许，3克").isEmpty());
+    }
+
+    @Test
+    public void extract_lowercasesAndDedupesInOrder() {
+        assertEquals(Arrays.asList("番茄", "tofu", "鸡蛋"),
+                IngredientTerms.extract("番茄1个 Tofu 200g 鸡蛋2个 TOFU 番茄"));
+    }
+
+    @Test
+    public void extract_dropsOverlongParts() {
+        // 超过 12 个字的多半是整句说明而不是食材名
+        assertEquals(Collections.singletonList("盐"),
+                IngredientTerms.extract("先把锅烧热之后再倒油下葱姜蒜爆香\n盐"));
+        assertEquals(Collections.singletonList("意大利黑醋汁风味番茄酱料"),
+                IngredientTerms.extract("意大利黑醋汁风味番茄酱料"));
+    }
+
+    @Test
+    public void extract_emptyInput() {
+        assertTrue(IngredientTerms.extract(null).isEmpty());
+        assertTrue(IngredientTerms.extract("").isEmpty());
+        assertTrue(IngredientTerms.extract(" ，、\n ").isEmpty());
+    }
+}
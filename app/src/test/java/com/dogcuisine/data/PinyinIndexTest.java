@@ -0,0 +1,51 @@
+package com.dogcuisine.data;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 汉字转写依赖设备上的 ICU，这里只覆盖查询规整与 ASCII 名称的行构建
+ */
+public class PinyinIndexTest {
+
+    @Test
+    public void normalizeQuery_keepsLowercaseLettersAndDigits() {
+        assertEquals("hongshaorou", PinyinIndex.normalizeQuery("HongShao Rou"));
+        assertEquals("xian", PinyinIndex.normalizeQuery("xi'an"));
+        assertEquals("hsr2", PinyinIndex.normalizeQuery(" hsr 2 "));
+    }
+
+    @Test
+    public void normalizeQuery_nullForNonPinyinInput() {
+        assertNull(PinyinIndex.normalizeQuery(null));
+        assertNull(PinyinIndex.normalizeQuery(""));
+        assertNull(PinyinIndex.normalizeQuery("   "));
+        assertNull(PinyinIndex.normalizeQuery("红烧"));
+        assertNull(PinyinIndex.normalizeQuery("hong烧"));
+        assertNull(PinyinIndex.normalizeQuery("a-b"));
+    }
+
+    @Test
+    public void buildRows_everySuffixWithInitials() {
+        List<RecipePinyinEntity> rows = PinyinIndex.buildRows(7L, "Tofu & Pasta 2");
+
+        assertEquals(3, rows.size());
+        assertEquals("tofupasta2", rows.get(0).getFullPinyin());
+        assertEquals("tp2", rows.get(0).getInitials());
+        assertEquals("pasta2", rows.get(1).getFullPinyin());
+        assertEquals("p2", rows.get(1).getInitials());
+        assertEquals("2", rows.get(2).getFullPinyin());
+        assertEquals(2, rows.get(2).getPosition());
+        assertEquals(7L, rows.get(2).getRecipeId());
+    }
+
+    @Test
+    public void buildRows_emptyName() {
+        assertTrue(PinyinIndex.buildRows(1L, null).isEmpty());
+        assertTrue(PinyinIndex.buildRows(1L, "").isEmpty());
+        assertTrue(PinyinIndex.buildRows(1L, "—！").isEmpty());
+    }
+}
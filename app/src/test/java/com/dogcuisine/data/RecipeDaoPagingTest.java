@@ -0,0 +1,218 @@
+package com.dogcuisine.data;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * 在 JVM 上的 SQLite 中执行 {@link RecipeDao} 的分页 SQL：大量菜谱、大量相同 updated_at 时，
+ * 按游标逐页读取既不重复也不遗漏，且查询走覆盖索引、不需要临时排序
+ */
+public class RecipeDaoPagingTest {
+
+    private static final int RECIPE_COUNT = 5000;
+    private static final int PAGE_SIZE = 40;
+    private static final Pattern NAMED_ARG = Pattern.compile(":(\\w+)");
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE recipes (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, " +
+                    "updated_at INTEGER NOT NULL, cover_image_path TEXT, category_id INTEGER, " +
+                    "is_favorite INTEGER NOT NULL, rating INTEGER NOT NULL)");
+            // 与 RecipeEntity 上声明的索引一致
+            statement.execute("CREATE INDEX index_category ON recipes (category_id, updated_at, id, name, cover_image_path)");
+            statement.execute("CREATE INDEX index_favorite ON recipes (is_favorite, updated_at, id, name, cover_image_path)");
+            statement.execute("CREATE INDEX index_rating ON recipes (rating, updated_at, id, name, cover_image_path)");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO recipes " +
+                "(name, updated_at, cover_image_path, category_id, is_favorite, rating) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < RECIPE_COUNT; i++) {
+                insert.setString(1, "菜谱" + i);
+                // 只有 600 个不同的时间，大量并列，翻页必须靠 id 区分
+                insert.setLong(2, 1_000 + (i * 7_919L) % 600);
+                insert.setString(3, i % 2 == 0 ? "/images/cover_" + i + ".jpg" : null);
+                if (i % 5 == 0) {
+                    insert.setNull(4, Types.INTEGER);
+                } else {
+                    insert.setLong(4, i % 4);
+                }
+                insert.setInt(5, i % 3 == 0 ? 1 : 0);
+                insert.setInt(6, i % 6);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void categoryPages_coverEveryRecipeOnceInOrder() throws SQLException {
+        Map<String, Object> args = new HashMap<>();
+        args.put("categoryId", 2L);
+        assertPagesMatch(RecipeDao.CATEGORY_SUMMARY_PAGE_QUERY, args, "category_id = 2");
+    }
+
+    @Test
+    public void uncategorizedPages_matchNullCategory() throws SQLException {
+        Map<String, Object> args = new HashMap<>();
+        args.put("categoryId", null);
+        assertPagesMatch(RecipeDao.CATEGORY_SUMMARY_PAGE_QUERY, args, "category_id IS NULL");
+    }
+
+    @Test
+    public void favoritePages_coverEveryFavoriteOnceInOrder() throws SQLException {
+        assertPagesMatch(RecipeDao.FAVORITE_SUMMARY_PAGE_QUERY, new HashMap<>(), "is_favorite = 1");
+    }
+
+    @Test
+    public void ratingPages_coverEveryRatedRecipeOnceInOrder() throws SQLException {
+        Map<String, Object> args = new HashMap<>();
+        args.put("rating", 5);
+        assertPagesMatch(RecipeDao.RATING_SUMMARY_PAGE_QUERY, args, "rating = 5");
+    }
+
+    @Test
+    public void laterPages_skipRecipesUpdatedWhileScrolling() throws SQLException {
+        Map<String, Object> args = new HashMap<>();
+        args.put("categoryId", 2L);
+        List<long[]> first = queryPage(RecipeDao.CATEGORY_SUMMARY_PAGE_QUERY, args, Long.MAX_VALUE, Long.MAX_VALUE);
+        long[] last = first.get(first.size() - 1);
+        // 翻页期间把后面的一条改到最新，它应只出现在下次刷新的首页，不会在后续页里重复
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("UPDATE recipes SET updated_at = 9999 WHERE id = " +
+                    "(SELECT id FROM recipes WHERE category_id = 2 ORDER BY updated_at ASC, id ASC LIMIT 1)");
+        }
+
+        Set<Long> seen = new HashSet<>();
+        for (long[] row : first) {
+            seen.add(row[0]);
+        }
+        List<long[]> rest = readAllPages(RecipeDao.CATEGORY_SUMMARY_PAGE_QUERY, args, last[1], last[0]);
+        for (long[] row : rest) {
+            assertTrue("duplicate id " + row[0], seen.add(row[0]));
+            assertTrue(row[1] < 9999);
+        }
+    }
+
+    @Test
+    public void pageQueries_useCoveringIndexWithoutSorting() throws SQLException {
+        String[] queries = {
+                RecipeDao.CATEGORY_SUMMARY_PAGE_QUERY,
+                RecipeDao.FAVORITE_SUMMARY_PAGE_QUERY,
+                RecipeDao.RATING_SUMMARY_PAGE_QUERY
+        };
+        for (String query : queries) {
+            Map<String, Object> args = new HashMap<>();
+            args.put("categoryId", 1L);
+            args.put("rating", 3);
+            args.put("afterUpdatedAt", Long.MAX_VALUE);
+            args.put("afterId", Long.MAX_VALUE);
+            args.put("limit", PAGE_SIZE);
+            StringBuilder plan = new StringBuilder();
+            try (PreparedStatement statement = prepare("EXPLAIN QUERY PLAN " + query, args);
+                 ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    plan.append(rows.getString("detail")).append('\n');
+                }
+            }
+            assertTrue(plan.toString(), plan.toString().contains("COVERING INDEX"));
+            assertFalse(plan.toString(), plan.toString().contains("TEMP B-TREE"));
+        }
+    }
+
+    private void assertPagesMatch(String query, Map<String, Object> args, String where) throws SQLException {
+        List<long[]> paged = readAllPages(query, args, Long.MAX_VALUE, Long.MAX_VALUE);
+        List<Long> expected = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT id FROM recipes WHERE " + where +
+                     " ORDER BY updated_at DESC, id DESC")) {
+            while (rows.next()) {
+                expected.add(rows.getLong(1));
+            }
+        }
+        List<Long> actual = new ArrayList<>();
+        for (long[] row : paged) {
+            actual.add(row[0]);
+        }
+        assertTrue(expected.size() > PAGE_SIZE * 10);
+        assertEquals(expected, actual);
+    }
+
+    private List<long[]> readAllPages(String query, Map<String, Object> args, long afterUpdatedAt, long afterId)
+            throws SQLException {
+        List<long[]> all = new ArrayList<>();
+        while (true) {
+            List<long[]> page = queryPage(query, args, afterUpdatedAt, afterId);
+            all.addAll(page);
+            if (page.size() < PAGE_SIZE) {
+                return all;
+            }
+            long[] last = page.get(page.size() - 1);
+            afterId = last[0];
+            afterUpdatedAt = last[1];
+        }
+    }
+
+    // 每行返回 {id, updated_at}
+    private List<long[]> queryPage(String query, Map<String, Object> args, long afterUpdatedAt, long afterId)
+            throws SQLException {
+        Map<String, Object> pageArgs = new HashMap<>(args);
+        pageArgs.put("afterUpdatedAt", afterUpdatedAt);
+        pageArgs.put("afterId", afterId);
+        pageArgs.put("limit", PAGE_SIZE);
+        List<long[]> page = new ArrayList<>();
+        try (PreparedStatement statement = prepare(query, pageArgs);
+             ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                page.add(new long[]{rows.getLong("id"), rows.getLong("updated_at")});
+            }
+        }
+        return page;
+    }
+
+    /**
+     * 把 Room 的 :name 参数换成 JDBC 的 ? 并按出现顺序绑定
+     */
+    private PreparedStatement prepare(String query, Map<String, Object> args) throws SQLException {
+        List<String> names = new ArrayList<>();
+        Matcher matcher = NAMED_ARG.matcher(query);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        PreparedStatement statement = connection.prepareStatement(matcher.replaceAll("?"));
+        for (int i = 0; i < names.size(); i++) {
+            assertTrue("missing argument " + names.get(i), args.containsKey(names.get(i)));
+            statement.setObject(i + 1, args.get(names.get(i)));
+        }
+        return statement;
+    }
+}
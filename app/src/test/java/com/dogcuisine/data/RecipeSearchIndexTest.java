@@ -0,0 +1,58 @@
+package com.dogcuisine.data;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RecipeSearchIndexTest {
+
+    @Test
+    public void buildMatchQuery_phrasePerTermWithPrefixOnLastToken() {
+        assertEquals("\"番茄 茄炒*\"", RecipeSearchIndex.buildMatchQuery("番茄炒"));
+        assertEquals("\"番茄*\" \"pasta*\"", RecipeSearchIndex.buildMatchQuery("  番茄   Pasta "));
+        assertEquals("name:\"蛋*\"", RecipeSearchIndex.buildNameMatchQuery("蛋"));
+    }
+
+    @Test
+    public void buildMatchQuery_stripsQuotesAndOperators() {
+        assertEquals("\"番茄*\"", RecipeSearchIndex.buildMatchQuery("\"番茄\""));
+        assertEquals("\"a*\" \"b*\"", RecipeSearchIndex.buildMatchQuery("a* -b"));
+    }
+
+    @Test
+    public void buildMatchQuery_nullWhenNothingSearchable() {
+        assertNull(RecipeSearchIndex.buildMatchQuery(null));
+        assertNull(RecipeSearchIndex.buildMatchQuery("   "));
+        assertNull(RecipeSearchIndex.buildMatchQuery("，。！"));
+        assertNull(RecipeSearchIndex.buildNameMatchQuery("\"\""));
+    }
+
+    @Test
+    public void queryPhrases_lowercasesTokens() {
+        List<List<String>> phrases = RecipeSearchIndex.queryPhrases("IPHONE壳 Tofu");
+        assertEquals(Arrays.asList(Arrays.asList("iphone", "壳"), Collections.singletonList("tofu")), phrases);
+    }
+
+    @Test
+    public void matches_requiresEveryPhraseInSomeColumn() {
+        String[] name = RecipeSearchIndex.indexTokens(SearchTokenizer.segmentForIndex("麻婆豆腐"));
+        String[] ingredient = RecipeSearchIndex.indexTokens(SearchTokenizer.segmentForIndex("豆腐 牛肉末 Pixian 豆瓣酱"));
+
+        assertTrue(RecipeSearchIndex.matches(RecipeSearchIndex.queryPhrases("麻婆 牛肉"), name, ingredient));
+        assertTrue(RecipeSearchIndex.matches(RecipeSearchIndex.queryPhrases("pix"), name, ingredient));
+        assertFalse(RecipeSearchIndex.matches(RecipeSearchIndex.queryPhrases("麻婆 鸡肉"), name, ingredient));
+        // 短语不能跨列拼接
+        assertFalse(RecipeSearchIndex.matches(RecipeSearchIndex.queryPhrases("豆腐牛"), name));
+        assertFalse(RecipeSearchIndex.matches(RecipeSearchIndex.queryPhrases(""), name, ingredient));
+    }
+
+    @Test
+    public void indexTokens_emptyColumn() {
+        assertEquals(0, RecipeSearchIndex.indexTokens(null).length);
+        assertEquals(0, RecipeSearchIndex.indexTokens("").length);
+    }
+}
@@ -0,0 +1,220 @@
+package com.dogcuisine.data;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 在一万道菜谱上执行 {@link RecipeSearcher} 的全文与拼音查询：检查查询计划不扫描 recipes 全表，
+ * 并统计查询耗时。拼音行按 {@link PinyinIndex#buildRows} 的规则直接写入（JVM 上没有 ICU 转写）
+ */
+public class RecipeSearcherQueryTest {
+
+    private static final int RECIPES = 10_000;
+    private static final long MAX_QUERY_MS = 50;
+
+    private static final String[][] FOODS = {
+            {"鸡蛋", "ji", "dan"}, {"番茄", "fan", "qie"}, {"土豆", "tu", "dou"}, {"牛肉", "niu", "rou"},
+            {"猪肉", "zhu", "rou"}, {"鸡翅", "ji", "chi"}, {"青椒", "qing", "jiao"}, {"茄子", "qie", "zi"},
+            {"豆腐", "dou", "fu"}, {"白菜", "bai", "cai"}, {"虾仁", "xia", "ren"}, {"排骨", "pai", "gu"},
+            {"洋葱", "yang", "cong"}, {"香菇", "xiang", "gu"}, {"黄瓜", "huang", "gua"}, {"南瓜", "nan", "gua"}
+    };
+    private static final String[][] METHODS = {
+            {"炒", "chao"}, {"烧", "shao"}, {"炖", "dun"}, {"蒸", "zheng"}, {"煮", "zhu"}, {"煎", "jian"}
+    };
+    private static final String[] SEASONINGS = {"盐", "生抽", "老抽", "料酒", "白糖", "醋", "蚝油", "葱", "姜", "蒜"};
+
+    private static TestDatabase db;
+
+    @BeforeClass
+    public static void seed() throws SQLException {
+        db = TestDatabase.create();
+        Random random = new Random(3);
+        db.inTransaction(() -> {
+            try (PreparedStatement recipe = db.connection.prepareStatement(
+                    "INSERT INTO recipes (id, name, created_at, updated_at, ingredient_json) VALUES (?, ?, 0, ?, ?)");
+                 PreparedStatement fts = db.connection.prepareStatement(
+                         "INSERT INTO recipe_fts (rowid, name, ingredient, steps) VALUES (?, ?, ?, ?)");
+                 PreparedStatement pinyin = db.connection.prepareStatement(
+                         "INSERT INTO recipe_pinyin (recipe_id, position, full_pinyin, initials) VALUES (?, ?, ?, ?)")) {
+                for (long id = 1; id <= RECIPES; id++) {
+                    String[] main = FOODS[random.nextInt(FOODS.length)];
+                    String[] method = METHODS[random.nextInt(METHODS.length)];
+                    String[] side = FOODS[random.nextInt(FOODS.length)];
+                    String name = side[0] + method[0] + main[0];
+                    String ingredient = ingredientText(random, main[0], side[0]);
+                    List<StepItem> steps = steps(random, main[0], side[0], method[0]);
+
+                    String ingredientJson = StepCodec.getInstance().encodeItem(
+                            new StepItem(ingredient, Collections.emptyList()));
+                    RecipeEntity entity = new RecipeEntity(id, name, 0, id, null, null, null, ingredientJson, null, 0, 0);
+                    recipe.setLong(1, id);
+                    recipe.setString(2, name);
+                    recipe.setLong(3, id);
+                    recipe.setString(4, ingredientJson);
+                    recipe.executeUpdate();
+
+                    RecipeFtsEntity row = RecipeSearchIndex.buildRow(id, entity, steps);
+                    fts.setLong(1, id);
+                    fts.setString(2, row.getName());
+                    fts.setString(3, row.getIngredient());
+                    fts.setString(4, row.getSteps());
+                    fts.executeUpdate();
+
+                    List<String> syllables = new ArrayList<>(Arrays.asList(side[1], side[2], method[1], main[1], main[2]));
+                    for (int start = 0; start < syllables.size(); start++) {
+                        StringBuilder full = new StringBuilder();
+                        StringBuilder initials = new StringBuilder();
+                        for (String syllable : syllables.subList(start, syllables.size())) {
+                            full.append(syllable);
+                            initials.append(syllable.charAt(0));
+                        }
+                        pinyin.setLong(1, id);
+                        pinyin.setInt(2, start);
+                        pinyin.setString(3, full.toString());
+                        pinyin.setString(4, initials.toString());
+                        pinyin.executeUpdate();
+                    }
+                }
+            }
+        });
+        db.execute("ANALYZE");
+    }
+
+    @AfterClass
+    public static void tearDown() throws SQLException {
+        db.close();
+    }
+
+    @Test
+    public void textQuery_usesFtsIndexWithoutScanningRecipes() throws SQLException {
+        String plan = db.queryPlan(RecipeSearcher.TEXT_QUERY, textArgs("番茄"));
+
+        assertTrue(plan, plan.contains("VIRTUAL TABLE INDEX"));
+        assertTrue(plan, plan.contains("SEARCH r USING INTEGER PRIMARY KEY"));
+        assertFalse(plan, plan.contains("SCAN r\n"));
+    }
+
+    @Test
+    public void indexTextQuery_usesFtsIndex() throws SQLException {
+        String plan = db.queryPlan(RecipeSearcher.INDEX_TEXT_QUERY, RecipeSearchIndex.buildMatchQuery("番茄"));
+
+        assertTrue(plan, plan.contains("VIRTUAL TABLE INDEX"));
+    }
+
+    @Test
+    public void pinyinQuery_usesPrefixRangeOnPinyinIndexes() throws SQLException {
+        String plan = db.queryPlan(RecipeSearcher.PINYIN_QUERY, pinyinArgs("fanqie"));
+
+        assertTrue(plan, plan.contains("index_recipe_pinyin_full_pinyin (full_pinyin>? AND full_pinyin<?)"));
+        assertTrue(plan, plan.contains("index_recipe_pinyin_initials (initials>? AND initials<?)"));
+        assertTrue(plan, plan.contains("SEARCH recipes USING INTEGER PRIMARY KEY"));
+        assertFalse(plan, plan.contains("SCAN recipes\n"));
+    }
+
+    @Test
+    public void textQuery_findsNameAndStepHits() throws SQLException {
+        List<Long> ids = ids(RecipeSearcher.TEXT_QUERY, textArgs("番茄炒鸡蛋"));
+
+        assertFalse(ids.isEmpty());
+        // 名称命中排在前面
+        assertTrue(nameOf(ids.get(0)).contains("番茄炒鸡蛋"));
+    }
+
+    @Test
+    public void queries_stayUnderBudgetAt10kRecipes() throws SQLException {
+        // 常见词命中数千行，少见组合只有几十行
+        for (String keyword : new String[]{"鸡蛋", "番茄", "番茄炒", "炖牛肉", "虾仁 豆腐", "料酒"}) {
+            long ms = bestOf(RecipeSearcher.TEXT_QUERY, textArgs(keyword));
+            int hits = ids(RecipeSearcher.TEXT_QUERY, textArgs(keyword)).size();
+            if (hits <= RecipeSearcher.MAX_CACHED_CANDIDATES) {
+                // 少量命中时还会读出索引文字供缓存
+                ms += bestOf(RecipeSearcher.INDEX_TEXT_QUERY, new Object[]{RecipeSearchIndex.buildMatchQuery(keyword)});
+            }
+            System.out.printf("text   %-8s %5d hits %3d ms%n", keyword, hits, ms);
+            assertTrue(keyword + ": " + ms + "ms", ms < MAX_QUERY_MS);
+        }
+        for (String keyword : new String[]{"f", "fanqie", "fqcj", "niurou", "xr"}) {
+            long ms = bestOf(RecipeSearcher.PINYIN_QUERY, pinyinArgs(keyword));
+            System.out.printf("pinyin %-8s %3d ms%n", keyword, ms);
+            assertTrue(keyword + ": " + ms + "ms", ms < MAX_QUERY_MS);
+        }
+    }
+
+    // 读出全部列与行，与 RecipeSearcher 取数的工作量一致；取三次中的最快一次
+    private static long bestOf(String query, Object[] args) throws SQLException {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 3; run++) {
+            long start = System.nanoTime();
+            try (PreparedStatement statement = db.bind(query, args);
+                 ResultSet rows = statement.executeQuery()) {
+                int columns = rows.getMetaData().getColumnCount();
+                while (rows.next()) {
+                    for (int i = 1; i <= columns; i++) {
+                        rows.getObject(i);
+                    }
+                }
+            }
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+        }
+        return best;
+    }
+
+    private static Object[] textArgs(String keyword) {
+        return new Object[]{RecipeSearchIndex.buildMatchQuery(keyword), RecipeSearchIndex.buildNameMatchQuery(keyword)};
+    }
+
+    private static Object[] pinyinArgs(String keyword) {
+        String prefix = PinyinIndex.normalizeQuery(keyword);
+        return new Object[]{prefix, prefix, prefix, prefix};
+    }
+
+    private static List<Long> ids(String query, Object[] args) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (PreparedStatement statement = db.bind(query, args);
+             ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                ids.add(rows.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private static String nameOf(long id) throws SQLException {
+        try (PreparedStatement statement = db.bind("SELECT name FROM recipes WHERE id = ?", id);
+             ResultSet rows = statement.executeQuery()) {
+            rows.next();
+            return rows.getString(1);
+        }
+    }
+
+    private static String ingredientText(Random random, String main, String side) {
+        StringBuilder sb = new StringBuilder(main).append(' ').append(1 + random.nextInt(500)).append("g\n")
+                .append(side).append(' ').append(1 + random.nextInt(5)).append("个");
+        for (int i = 0; i < 4; i++) {
+            sb.append('\n').append(SEASONINGS[random.nextInt(SEASONINGS.length)]).append("适量");
+        }
+        return sb.toString();
+    }
+
+    private static List<StepItem> steps(Random random, String main, String side, String method) {
+        String seasoning = SEASONINGS[random.nextInt(SEASONINGS.length)];
+        return Arrays.asList(
+                new StepItem(main + "洗净切块，" + side + "切好备用。", Collections.emptyList()),
+                new StepItem("热锅凉油，下" + side + "翻炒至断生后盛出。", Collections.emptyList()),
+                new StepItem("锅中再放少许油，放入" + main + method + "至变色，加入" + seasoning + "调味。",
+                        Collections.emptyList()),
+                new StepItem("倒回" + side + "，大火翻匀，收汁后出锅装盘。", Collections.emptyList()));
+    }
+}
@@ -0,0 +1,110 @@
+package com.dogcuisine.data;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 在 JVM 上的 SQLite 中执行 {@link RecipeStepDao#STEP_ROWS_QUERY}，行由 {@link RecipeSteps} 写入并还原
+ */
+public class RecipeStepDaoTest {
+
+    private TestDatabase db;
+
+    @Before
+    public void setUp() throws SQLException {
+        db = TestDatabase.create();
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        db.close();
+    }
+
+    @Test
+    public void stepRows_roundTripStepsAndImagesInOrder() throws SQLException {
+        // 超过 10 步，位置须按数值而不是文字排序；图片数 0~3 张
+        List<StepItem> original = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            StepItem step = new StepItem();
+            step.setText(i == 5 ? null : "步骤" + i);
+            for (int j = 0; j < i % 4; j++) {
+                step.addImagePath("/images/" + i + "_" + j + ".jpg");
+            }
+            original.add(step);
+        }
+        insert(1L, original);
+        insert(2L, Collections.singletonList(new StepItem("别的菜谱", Collections.singletonList("/images/other.jpg"))));
+
+        List<StepItem> restored = RecipeSteps.fromRows(stepRows(1L));
+
+        assertEquals(original.size(), restored.size());
+        for (int i = 0; i < original.size(); i++) {
+            assertEquals(original.get(i).getText(), restored.get(i).getText());
+            assertEquals(original.get(i).getImagePaths(), restored.get(i).getImagePaths());
+        }
+    }
+
+    @Test
+    public void stepRows_emptyForRecipeWithoutSteps() throws SQLException {
+        insert(2L, Collections.singletonList(new StepItem("别的菜谱", Collections.emptyList())));
+
+        assertTrue(stepRows(1L).isEmpty());
+    }
+
+    @Test
+    public void stepRows_readThroughPrimaryKeysWithoutSorting() throws SQLException {
+        Map<String, Object> args = new HashMap<>();
+        args.put("recipeId", 1L);
+        String plan = db.queryPlan(RecipeStepDao.STEP_ROWS_QUERY, args);
+
+        assertTrue(plan, plan.contains("SEARCH s USING INDEX sqlite_autoindex_recipe_steps_1 (recipe_id=?)"));
+        assertTrue(plan, plan.contains(
+                "SEARCH i USING INDEX sqlite_autoindex_recipe_images_1 (recipe_id=? AND step_position=?)"));
+        assertFalse(plan, plan.contains("TEMP B-TREE"));
+    }
+
+    private void insert(long recipeId, List<StepItem> steps) throws SQLException {
+        for (RecipeStepEntity row : RecipeSteps.toStepRows(recipeId, steps)) {
+            try (PreparedStatement insert = db.bind("INSERT INTO recipe_steps (recipe_id, position, step_text) " +
+                    "VALUES (?, ?, ?)", row.getRecipeId(), row.getPosition(), row.getStepText())) {
+                insert.executeUpdate();
+            }
+        }
+        // 倒序写入图片，顺序只能来自查询的 ORDER BY
+        List<RecipeImageEntity> images = new ArrayList<>(RecipeSteps.toImageRows(recipeId, steps));
+        Collections.reverse(images);
+        for (RecipeImageEntity row : images) {
+            try (PreparedStatement insert = db.bind("INSERT INTO recipe_images " +
+                            "(recipe_id, step_position, position, path) VALUES (?, ?, ?, ?)",
+                    row.getRecipeId(), row.getStepPosition(), row.getPosition(), row.getPath())) {
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    private List<RecipeStepRow> stepRows(long recipeId) throws SQLException {
+        Map<String, Object> args = new HashMap<>();
+        args.put("recipeId", recipeId);
+        List<RecipeStepRow> rows = new ArrayList<>();
+        try (PreparedStatement statement = db.prepare(RecipeStepDao.STEP_ROWS_QUERY, args);
+             ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                rows.add(new RecipeStepRow(result.getInt("position"), result.getString("step_text"),
+                        result.getString("path")));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,75 @@
+package com.dogcuisine.data;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RecipeStepsTest {
+
+    @Test
+    public void fromRows_groupsImagesUnderTheirStep() {
+        List<StepItem> steps = RecipeSteps.fromRows(Arrays.asList(
+                new RecipeStepRow(0, "洗菜", null),
+                new RecipeStepRow(1, "切块", "/images/a.jpg"),
+                new RecipeStepRow(1, "切块", "/images/b.jpg"),
+                new RecipeStepRow(2, null, null),
+                new RecipeStepRow(3, "装盘", "/images/c.jpg")));
+
+        assertEquals(4, steps.size());
+        assertEquals("洗菜", steps.get(0).getText());
+        assertTrue(steps.get(0).getImagePaths().isEmpty());
+        assertEquals(Arrays.asList("/images/a.jpg", "/images/b.jpg"), steps.get(1).getImagePaths());
+        assertNull(steps.get(2).getText());
+        assertEquals(Collections.singletonList("/images/c.jpg"), steps.get(3).getImagePaths());
+    }
+
+    @Test
+    public void fromRows_roundTripsWhatToRowsWrote() {
+        List<StepItem> original = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            StepItem step = new StepItem();
+            step.setText("步骤" + i);
+            for (int j = 0; j < i % 3; j++) {
+                step.addImagePath("/images/" + i + "_" + j + ".jpg");
+            }
+            original.add(step);
+        }
+
+        List<StepItem> restored = RecipeSteps.fromRows(join(
+                RecipeSteps.toStepRows(1L, original), RecipeSteps.toImageRows(1L, original)));
+
+        assertEquals(original.size(), restored.size());
+        for (int i = 0; i < original.size(); i++) {
+            assertEquals(original.get(i).getText(), restored.get(i).getText());
+            assertEquals(original.get(i).getImagePaths(), restored.get(i).getImagePaths());
+        }
+    }
+
+    @Test
+    public void fromRows_empty() {
+        assertTrue(RecipeSteps.fromRows(new ArrayList<>()).isEmpty());
+    }
+
+    // 与 RecipeStepDao.getStepRows 的 LEFT JOIN 结果一致
+    private static List<RecipeStepRow> join(List<RecipeStepEntity> steps, List<RecipeImageEntity> images) {
+        List<RecipeStepRow> rows = new ArrayList<>();
+        for (RecipeStepEntity step : steps) {
+            boolean hasImage = false;
+            for (RecipeImageEntity image : images) {
+                if (image.getStepPosition() == step.getPosition()) {
+                    rows.add(new RecipeStepRow(step.getPosition(), step.getStepText(), image.getPath()));
+                    hasImage = true;
+                }
+            }
+            if (!hasImage) {
+                rows.add(new RecipeStepRow(step.getPosition(), step.getStepText(), null));
+            }
+        }
+        return rows;
+    }
+}
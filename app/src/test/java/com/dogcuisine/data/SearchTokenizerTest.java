@@ -0,0 +1,78 @@
+package com.dogcuisine.data;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class SearchTokenizerTest {
+
+    @Test
+    public void segmentForIndex_cjkRunBecomesBigramsPlusTail() {
+        assertEquals("番茄 茄炒 炒蛋 蛋", SearchTokenizer.segmentForIndex("番茄炒蛋"));
+    }
+
+    @Test
+    public void segmentForIndex_singleCjkCharacter() {
+        assertEquals("蛋", SearchTokenizer.segmentForIndex("蛋"));
+        assertEquals("蛋 pasta", SearchTokenizer.segmentForIndex("蛋pasta"));
+    }
+
+    @Test
+    public void segmentForIndex_mixedCjkAndLatin() {
+        assertEquals("番茄 茄 Pasta 2 人份 份", SearchTokenizer.segmentForIndex("番茄Pasta 2人份"));
+        assertEquals("iPhone 壳", SearchTokenizer.segmentForIndex("iPhone壳"));
+    }
+
+    @Test
+    public void segmentForIndex_punctuationSplitsRuns() {
+        assertEquals("番茄 茄 炒蛋 蛋", SearchTokenizer.segmentForIndex("番茄，炒蛋！"));
+        assertEquals("盐 3g 糖", SearchTokenizer.segmentForIndex("  盐/3g、(糖)…  "));
+    }
+
+    @Test
+    public void segmentForIndex_kanaHangulAndSupplementaryHan() {
+        assertEquals("すき きや やき き", SearchTokenizer.segmentForIndex("すきやき"));
+        assertEquals("김치 치", SearchTokenizer.segmentForIndex("김치"));
+        // 扩展区汉字占两个 char，按码点切分
+        assertEquals("𠮷野 野家 家", SearchTokenizer.segmentForIndex("𠮷野家"));
+    }
+
+    @Test
+    public void segmentForIndex_emptyInput() {
+        assertEquals("", SearchTokenizer.segmentForIndex(null));
+        assertEquals("", SearchTokenizer.segmentForIndex(""));
+        assertEquals("", SearchTokenizer.segmentForIndex(" ，。！？ "));
+    }
+
+    @Test
+    public void segmentQueryTerm_lastCjkRunHasNoTail() {
+        assertEquals(Arrays.asList("番茄", "茄炒"), SearchTokenizer.segmentQueryTerm("番茄炒"));
+        assertEquals(Collections.singletonList("蛋"), SearchTokenizer.segmentQueryTerm("蛋"));
+        // 非末尾的汉字串保留末字，后面的词才能接在它后面连续匹配
+        assertEquals(Arrays.asList("番茄", "茄", "pasta"), SearchTokenizer.segmentQueryTerm("番茄pasta"));
+    }
+
+    @Test
+    public void segmentQueryTerm_emptyOrPunctuationOnly() {
+        assertTrue(SearchTokenizer.segmentQueryTerm(null).isEmpty());
+        assertTrue(SearchTokenizer.segmentQueryTerm("").isEmpty());
+        assertTrue(SearchTokenizer.segmentQueryTerm("，。！").isEmpty());
+    }
+
+    @Test
+    public void everyCjkSubstringMatchesTheIndexedText() {
+        String name = "红烧排骨炖土豆";
+        String[] indexed = RecipeSearchIndex.indexTokens(SearchTokenizer.segmentForIndex(name));
+        for (int start = 0; start < name.length(); start++) {
+            for (int end = start + 1; end <= name.length(); end++) {
+                String keyword = name.substring(start, end);
+                assertTrue(keyword, RecipeSearchIndex.matches(RecipeSearchIndex.queryPhrases(keyword), indexed));
+            }
+        }
+        assertFalse(RecipeSearchIndex.matches(RecipeSearchIndex.queryPhrases("排骨汤"), indexed));
+        assertFalse(RecipeSearchIndex.matches(RecipeSearchIndex.queryPhrases("土豆红"), indexed));
+    }
+}
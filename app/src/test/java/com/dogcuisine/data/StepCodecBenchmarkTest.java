@@ -0,0 +1,57 @@
+package com.dogcuisine.data;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 同一段 JSON 由 StepCodec 与 Gson 反射解析时每次解码的分配量
+ */
+public class StepCodecBenchmarkTest {
+
+    private static final int ITERATIONS = 20_000;
+    private static final Type LIST_TYPE = new TypeToken<List<StepItem>>() {
+    }.getType();
+
+    private final Gson gson = new Gson();
+    private final StepCodec codec = StepCodec.getInstance();
+
+    @Before
+    public void setUp() {
+        assumeTrue(DecodeBenchmark.isSupported());
+    }
+
+    @Test
+    public void decodeList_allocatesLessThanReflectiveGson() {
+        String json = gson.toJson(DecodeBenchmark.steps(), LIST_TYPE);
+
+        DecodeBenchmark.Result streaming = DecodeBenchmark.measure("steps StepCodec", ITERATIONS,
+                () -> codec.decodeList(json));
+        DecodeBenchmark.Result reflective = DecodeBenchmark.measure("steps gson", ITERATIONS,
+                () -> gson.<List<StepItem>>fromJson(json, LIST_TYPE));
+
+        assertTrue(streaming.bytesPerOp + " vs " + reflective.bytesPerOp,
+                streaming.bytesPerOp < reflective.bytesPerOp);
+    }
+
+    @Test
+    public void decodeItem_allocatesLessThanReflectiveGson() {
+        String json = gson.toJson(DecodeBenchmark.ingredient());
+
+        DecodeBenchmark.Result streaming = DecodeBenchmark.measure("ingredient StepCodec", ITERATIONS,
+                () -> codec.decodeItem(json));
+        DecodeBenchmark.Result reflective = DecodeBenchmark.measure("ingredient gson", ITERATIONS,
+                () -> gson.fromJson(json, StepItem.class));
+
+        assertTrue(streaming.bytesPerOp + " vs " + reflective.bytesPerOp,
+                streaming.bytesPerOp < reflective.bytesPerOp);
+    }
+}
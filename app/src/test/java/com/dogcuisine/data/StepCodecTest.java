@@ -0,0 +1,107 @@
+package com.dogcuisine.data;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 升级前的数据由 Gson 反射序列化写入，StepCodec 必须能原样读出
+ */
+public class StepCodecTest {
+
+    private static final Type LIST_TYPE = new TypeToken<List<StepItem>>() {
+    }.getType();
+
+    private final StepCodec codec = StepCodec.getInstance();
+
+    @Test
+    public void decodeList_readsJsonWrittenByReflectiveGson() {
+        List<StepItem> steps = Arrays.asList(
+                new StepItem("热锅凉油，放入葱姜 \"爆香\"\n再下肉片", Arrays.asList("/images/step_1.jpg", "/images/步骤_2.jpg")),
+                new StepItem("", new ArrayList<>()),
+                new StepItem(null, Collections.singletonList("/images/step_3.jpg")));
+        String legacy = new Gson().toJson(steps, LIST_TYPE);
+
+        List<StepItem> decoded = codec.decodeList(legacy);
+
+        assertEquals(3, decoded.size());
+        for (int i = 0; i < steps.size(); i++) {
+            assertEquals(steps.get(i).getText(), decoded.get(i).getText());
+            assertEquals(steps.get(i).getImagePaths(), decoded.get(i).getImagePaths());
+        }
+    }
+
+    @Test
+    public void decodeItem_readsJsonWrittenByReflectiveGson() {
+        StepItem ingredient = new StepItem("鸡蛋 2个\n番茄 3个", Collections.singletonList("/images/ingredient.jpg"));
+        String legacy = new Gson().toJson(ingredient);
+
+        StepItem decoded = codec.decodeItem(legacy);
+
+        assertEquals(ingredient.getText(), decoded.getText());
+        assertEquals(ingredient.getImagePaths(), decoded.getImagePaths());
+    }
+
+    @Test
+    public void decodeList_readsSerializedNulls() {
+        Gson gson = new GsonBuilder().serializeNulls().create();
+        String legacy = gson.toJson(Arrays.asList(new StepItem(null, new ArrayList<>()), null), LIST_TYPE);
+
+        List<StepItem> decoded = codec.decodeList(legacy);
+
+        // 列表中的 null 条目被跳过
+        assertEquals(1, decoded.size());
+        assertNull(decoded.get(0).getText());
+        assertTrue(decoded.get(0).getImagePaths().isEmpty());
+    }
+
+    @Test
+    public void decodeItem_toleratesMissingNullAndUnknownFields() {
+        StepItem empty = codec.decodeItem("{}");
+        assertNull(empty.getText());
+        assertTrue(empty.getImagePaths().isEmpty());
+
+        StepItem nulls = codec.decodeItem("{\"text\":null,\"imagePaths\":null}");
+        assertNull(nulls.getText());
+        assertTrue(nulls.getImagePaths().isEmpty());
+
+        StepItem nullPath = codec.decodeItem("{\"text\":\"盐\",\"imagePaths\":[null,\"a.jpg\"],\"extra\":{\"x\":[1,2]}}");
+        assertEquals("盐", nullPath.getText());
+        assertEquals(Collections.singletonList("a.jpg"), nullPath.getImagePaths());
+    }
+
+    @Test
+    public void decode_returnsEmptyOnBlankOrMalformedJson() {
+        assertTrue(codec.decodeList(null).isEmpty());
+        assertTrue(codec.decodeList("").isEmpty());
+        assertTrue(codec.decodeList("null").isEmpty());
+        assertTrue(codec.decodeList("[{\"text\":").isEmpty());
+        assertNull(codec.decodeItem("not json").getText());
+        assertTrue(codec.decodeItem("null").getImagePaths().isEmpty());
+    }
+
+    @Test
+    public void encodeList_isReadableByReflectiveGson() {
+        List<StepItem> steps = Arrays.asList(
+                new StepItem("切块", Collections.singletonList("/images/a.jpg")),
+                new StepItem(null, new ArrayList<>()));
+
+        List<StepItem> decoded = new Gson().fromJson(codec.encodeList(steps), LIST_TYPE);
+
+        assertEquals(2, decoded.size());
+        assertEquals("切块", decoded.get(0).getText());
+        assertEquals(Collections.singletonList("/images/a.jpg"), decoded.get(0).getImagePaths());
+        assertNull(decoded.get(1).getText());
+        assertTrue(decoded.get(1).getImagePaths().isEmpty());
+    }
+}
@@ -0,0 +1,66 @@
+package com.dogcuisine.data;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 二进制编码与原先 Gson 反射解析 JSON 的解码耗时、分配量对比，数据为一道菜的食材与步骤
+ */
+public class StepItemCodecBenchmarkTest {
+
+    private static final int ITERATIONS = 20_000;
+    private static final Type LIST_TYPE = new TypeToken<List<StepItem>>() {
+    }.getType();
+
+    private final Gson gson = new Gson();
+
+    @Before
+    public void setUp() {
+        assumeTrue(DecodeBenchmark.isSupported());
+    }
+
+    @Test
+    public void decodeIngredient_fasterAndAllocatesLessThanGson() {
+        StepItem ingredient = DecodeBenchmark.ingredient();
+        byte[] blob = StepItemCodec.encode(ingredient);
+        String json = gson.toJson(ingredient);
+
+        DecodeBenchmark.Result binary = DecodeBenchmark.measure("ingredient binary", ITERATIONS,
+                () -> StepItemCodec.decode(blob));
+        DecodeBenchmark.Result reflective = DecodeBenchmark.measure("ingredient gson", ITERATIONS,
+                () -> gson.fromJson(json, StepItem.class));
+
+        assertTrue(blob.length < json.getBytes(StandardCharsets.UTF_8).length);
+        assertLess("bytes/op", binary.bytesPerOp, reflective.bytesPerOp);
+        assertLess("ns/op", binary.nanosPerOp, reflective.nanosPerOp);
+    }
+
+    @Test
+    public void decodeSteps_fasterAndAllocatesLessThanGson() {
+        List<StepItem> steps = DecodeBenchmark.steps();
+        byte[] blob = StepItemCodec.encodeList(steps);
+        String json = gson.toJson(steps, LIST_TYPE);
+
+        DecodeBenchmark.Result binary = DecodeBenchmark.measure("steps binary", ITERATIONS,
+                () -> StepItemCodec.decodeList(blob));
+        DecodeBenchmark.Result reflective = DecodeBenchmark.measure("steps gson", ITERATIONS,
+                () -> gson.<List<StepItem>>fromJson(json, LIST_TYPE));
+
+        assertLess("bytes/op", binary.bytesPerOp, reflective.bytesPerOp);
+        assertLess("ns/op", binary.nanosPerOp, reflective.nanosPerOp);
+    }
+
+    private static void assertLess(String metric, double actual, double baseline) {
+        assertTrue(metric + ": " + actual + " vs " + baseline, actual < baseline);
+    }
+}
@@ -0,0 +1,120 @@
+package com.dogcuisine.data;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StepItemCodecTest {
+
+    @Test
+    public void roundTrip_keepsTextAndPaths() {
+        StepItem item = new StepItem("鸡蛋 2个、番茄 3个\n盐适量 🍅", Arrays.asList(
+                "/data/user/0/com.dogcuisine/files/images/ingredient_1.jpg",
+                "/data/user/0/com.dogcuisine/files/images/食材_2.jpg"));
+
+        StepItem decoded = StepItemCodec.decode(StepItemCodec.encode(item));
+
+        assertEquals(item.getText(), decoded.getText());
+        assertEquals(item.getImagePaths(), decoded.getImagePaths());
+    }
+
+    @Test
+    public void roundTrip_distinguishesNullAndEmptyText() {
+        StepItem nullText = StepItemCodec.decode(StepItemCodec.encode(new StepItem(null, new ArrayList<>())));
+        StepItem emptyText = StepItemCodec.decode(StepItemCodec.encode(new StepItem("", new ArrayList<>())));
+
+        assertNull(nullText.getText());
+        assertEquals("", emptyText.getText());
+        assertTrue(nullText.getImagePaths().isEmpty());
+        assertTrue(emptyText.getImagePaths().isEmpty());
+    }
+
+    @Test
+    public void encode_nullPathsAndItems() {
+        StepItem nullPathList = StepItemCodec.decode(StepItemCodec.encode(new StepItem("a", null)));
+        assertTrue(nullPathList.getImagePaths().isEmpty());
+
+        StepItem nullPath = new StepItem("b", Collections.singletonList(null));
+        assertEquals(Collections.singletonList(""), StepItemCodec.decode(StepItemCodec.encode(nullPath)).getImagePaths());
+
+        List<StepItem> items = new ArrayList<>();
+        items.add(null);
+        List<StepItem> decoded = StepItemCodec.decodeList(StepItemCodec.encodeList(items));
+        assertEquals(1, decoded.size());
+        assertNull(decoded.get(0).getText());
+        assertTrue(decoded.get(0).getImagePaths().isEmpty());
+    }
+
+    @Test
+    public void roundTrip_multiByteLengthsAndCounts() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            text.append('汤');
+        }
+        List<StepItem> items = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            items.add(new StepItem(i == 0 ? text.toString() : "步骤 " + i, Collections.singletonList("p" + i)));
+        }
+
+        List<StepItem> decoded = StepItemCodec.decodeList(StepItemCodec.encodeList(items));
+
+        assertEquals(items.size(), decoded.size());
+        assertEquals(text.toString(), decoded.get(0).getText());
+        assertEquals("步骤 299", decoded.get(299).getText());
+        assertEquals(Collections.singletonList("p299"), decoded.get(299).getImagePaths());
+    }
+
+    @Test
+    public void decode_nullOrEmptyReturnsEmptyItem() {
+        assertNull(StepItemCodec.decode(null).getText());
+        assertTrue(StepItemCodec.decode(new byte[0]).getImagePaths().isEmpty());
+        assertTrue(StepItemCodec.decodeList(null).isEmpty());
+    }
+
+    @Test
+    public void decode_rejectsEveryTruncation() {
+        byte[] data = StepItemCodec.encode(new StepItem("番茄炒蛋", Arrays.asList("a.jpg", "b.jpg")));
+        for (int length = 1; length < data.length; length++) {
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThrows(IllegalArgumentException.class, () -> StepItemCodec.decode(truncated));
+        }
+    }
+
+    @Test
+    public void decode_rejectsTrailingBytes() {
+        byte[] data = StepItemCodec.encode(new StepItem("盐", new ArrayList<>()));
+        byte[] padded = Arrays.copyOf(data, data.length + 1);
+        assertThrows(IllegalArgumentException.class, () -> StepItemCodec.decode(padded));
+    }
+
+    @Test
+    public void decode_rejectsUnknownVersion() {
+        byte[] data = StepItemCodec.encode(new StepItem("盐", new ArrayList<>()));
+        data[0] = 2;
+        assertThrows(IllegalArgumentException.class, () -> StepItemCodec.decode(data));
+    }
+
+    @Test
+    public void decode_rejectsCorruptCounts() {
+        // 条目数为 Integer.MAX_VALUE，不应按它预分配
+        byte[] hugeCount = {StepItemCodec.VERSION_1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        assertThrows(IllegalArgumentException.class, () -> StepItemCodec.decodeList(hugeCount));
+
+        // 条目数为 -1
+        byte[] negativeCount = {StepItemCodec.VERSION_1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+        assertThrows(IllegalArgumentException.class, () -> StepItemCodec.decodeList(negativeCount));
+
+        // 文字长度超出剩余数据
+        byte[] longText = {StepItemCodec.VERSION_1, 1, 100, 'a'};
+        assertThrows(IllegalArgumentException.class, () -> StepItemCodec.decodeList(longText));
+
+        // varint 超过 5 个字节
+        byte[] longVarint = {StepItemCodec.VERSION_1, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0};
+        assertThrows(IllegalArgumentException.class, () -> StepItemCodec.decodeList(longVarint));
+    }
+}
@@ -0,0 +1,267 @@
+package com.dogcuisine.data;
+
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JVM 上的内存 SQLite，用来执行 DAO 上的 SQL 常量和数据库迁移。
+ * 建表语句与 Room 按当前实体生成的一致；迁移代码通过 {@link #support()} 在同一连接上执行
+ */
+final class TestDatabase implements AutoCloseable {
+
+    private static final Pattern NAMED_ARG = Pattern.compile(":(\\w+)");
+
+    // 与 schema 18 的实体定义一致
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS `recipes` (`id` INTEGER PRIMARY KEY AUTOINCREMENT, `name` TEXT, " +
+                    "`created_at` INTEGER NOT NULL, `updated_at` INTEGER NOT NULL, `content` TEXT, " +
+                    "`cover_image_path` TEXT, `steps_json` TEXT, `ingredient_json` TEXT NOT NULL DEFAULT '', " +
+                    "`ingredient_blob` BLOB, `category_id` INTEGER, `is_favorite` INTEGER NOT NULL DEFAULT 0, " +
+                    "`rating` INTEGER NOT NULL DEFAULT 0)",
+            "CREATE INDEX IF NOT EXISTS `index_recipes_category_id_updated_at_id_name_cover_image_path` " +
+                    "ON `recipes` (`category_id`, `updated_at`, `id`, `name`, `cover_image_path`)",
+            "CREATE INDEX IF NOT EXISTS `index_recipes_is_favorite_updated_at_id_name_cover_image_path` " +
+                    "ON `recipes` (`is_favorite`, `updated_at`, `id`, `name`, `cover_image_path`)",
+            "CREATE INDEX IF NOT EXISTS `index_recipes_rating_updated_at_id_name_cover_image_path` " +
+                    "ON `recipes` (`rating`, `updated_at`, `id`, `name`, `cover_image_path`)",
+            "CREATE INDEX IF NOT EXISTS `index_recipes_updated_at` ON `recipes` (`updated_at`)",
+            "CREATE TABLE IF NOT EXISTS `categories` (`id` INTEGER PRIMARY KEY AUTOINCREMENT, `name` TEXT, " +
+                    "`sort_order` INTEGER NOT NULL)",
+            "CREATE VIRTUAL TABLE IF NOT EXISTS `recipe_fts` USING FTS4(" +
+                    "`name` TEXT NOT NULL, `ingredient` TEXT NOT NULL, `steps` TEXT NOT NULL, tokenize=unicode61)",
+            "CREATE TABLE IF NOT EXISTS `recipe_pinyin` (`recipe_id` INTEGER NOT NULL, `position` INTEGER NOT NULL, " +
+                    "`full_pinyin` TEXT NOT NULL, `initials` TEXT NOT NULL, PRIMARY KEY(`recipe_id`, `position`))",
+            "CREATE INDEX IF NOT EXISTS `index_recipe_pinyin_full_pinyin` ON `recipe_pinyin` (`full_pinyin`)",
+            "CREATE INDEX IF NOT EXISTS `index_recipe_pinyin_initials` ON `recipe_pinyin` (`initials`)",
+            "CREATE TABLE IF NOT EXISTS `recipe_steps` (`recipe_id` INTEGER NOT NULL, `position` INTEGER NOT NULL, " +
+                    "`step_text` TEXT, PRIMARY KEY(`recipe_id`, `position`))",
+            "CREATE TABLE IF NOT EXISTS `recipe_images` (`recipe_id` INTEGER NOT NULL, " +
+                    "`step_position` INTEGER NOT NULL, `position` INTEGER NOT NULL, `path` TEXT NOT NULL, " +
+                    "PRIMARY KEY(`recipe_id`, `step_position`, `position`))",
+            "CREATE INDEX IF NOT EXISTS `index_recipe_images_path` ON `recipe_images` (`path`)",
+            "CREATE TABLE IF NOT EXISTS `image_refs` (`path` TEXT NOT NULL, `recipe_id` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`path`, `recipe_id`))",
+            "CREATE INDEX IF NOT EXISTS `index_image_refs_recipe_id` ON `image_refs` (`recipe_id`)",
+            "CREATE TABLE IF NOT EXISTS `recipe_stats` (`scope` TEXT NOT NULL, `scope_id` INTEGER NOT NULL, " +
+                    "`count` INTEGER NOT NULL, PRIMARY KEY(`scope`, `scope_id`))",
+            "CREATE TABLE IF NOT EXISTS `recipe_ingredient_terms` (`term` TEXT NOT NULL, " +
+                    "`recipe_id` INTEGER NOT NULL, PRIMARY KEY(`term`, `recipe_id`))",
+            "CREATE INDEX IF NOT EXISTS `index_recipe_ingredient_terms_recipe_id` " +
+                    "ON `recipe_ingredient_terms` (`recipe_id`)"
+    };
+
+    final Connection connection;
+
+    private TestDatabase(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * 空的内存数据库，不建表，供迁移测试自行准备旧版本的表结构
+     */
+    static TestDatabase empty() throws SQLException {
+        return new TestDatabase(DriverManager.getConnection("jdbc:sqlite::memory:"));
+    }
+
+    /**
+     * 建好当前版本全部表的内存数据库
+     */
+    static TestDatabase create() throws SQLException {
+        TestDatabase db = empty();
+        db.execute(SCHEMA);
+        return db;
+    }
+
+    void execute(String... statements) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * 在一个事务里执行，批量造数据时使用
+     */
+    void inTransaction(SqlWork work) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            work.run();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * 把 Room 的 :name 参数换成 JDBC 的 ? 并按出现顺序绑定；集合参数像 Room 一样展开成多个 ?
+     */
+    PreparedStatement prepare(String query, Map<String, Object> args) throws SQLException {
+        List<Object> values = new ArrayList<>();
+        Matcher matcher = NAMED_ARG.matcher(query);
+        StringBuffer sql = new StringBuffer();
+        while (matcher.find()) {
+            String name = matcher.group(1);
+            if (!args.containsKey(name)) {
+                throw new IllegalArgumentException("missing argument " + name);
+            }
+            Object value = args.get(name);
+            if (value instanceof Collection) {
+                Collection<?> items = (Collection<?>) value;
+                matcher.appendReplacement(sql, String.join(", ", Collections.nCopies(items.size(), "?")));
+                values.addAll(items);
+            } else {
+                matcher.appendReplacement(sql, "?");
+                values.add(value);
+            }
+        }
+        matcher.appendTail(sql);
+        PreparedStatement statement = connection.prepareStatement(sql.toString());
+        for (int i = 0; i < values.size(); i++) {
+            statement.setObject(i + 1, values.get(i));
+        }
+        return statement;
+    }
+
+    /**
+     * 执行查询并取出一列
+     */
+    List<Object> queryColumn(String query, Map<String, Object> args, String column) throws SQLException {
+        List<Object> values = new ArrayList<>();
+        try (PreparedStatement statement = prepare(query, args);
+             ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                values.add(rows.getObject(column));
+            }
+        }
+        return values;
+    }
+
+    List<Long> queryIds(String query, Map<String, Object> args) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        for (Object value : queryColumn(query, args, "id")) {
+            ids.add(((Number) value).longValue());
+        }
+        return ids;
+    }
+
+    long queryLong(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(sql)) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    String queryPlan(String query, Map<String, Object> args) throws SQLException {
+        try (PreparedStatement statement = prepare("EXPLAIN QUERY PLAN " + query, args)) {
+            return readPlan(statement);
+        }
+    }
+
+    /**
+     * 同上，用于以 ? 按位置传参的查询
+     */
+    String queryPlan(String query, Object... args) throws SQLException {
+        try (PreparedStatement statement = bind("EXPLAIN QUERY PLAN " + query, args)) {
+            return readPlan(statement);
+        }
+    }
+
+    /**
+     * 以 SupportSQLiteDatabase 的形式交给迁移与重建代码，只实现它们用到的 execSQL / query
+     */
+    SupportSQLiteDatabase support() {
+        return (SupportSQLiteDatabase) Proxy.newProxyInstance(TestDatabase.class.getClassLoader(),
+                new Class<?>[]{SupportSQLiteDatabase.class}, (proxy, method, args) -> {
+                    if (args == null || !(args[0] instanceof String)) {
+                        throw new UnsupportedOperationException(method.toString());
+                    }
+                    Object[] bindArgs = args.length > 1 ? (Object[]) args[1] : new Object[0];
+                    if (method.getName().equals("execSQL")) {
+                        try (PreparedStatement statement = bind((String) args[0], bindArgs)) {
+                            statement.execute();
+                        }
+                        return null;
+                    }
+                    if (method.getName().equals("query")) {
+                        PreparedStatement statement = bind((String) args[0], bindArgs);
+                        return cursor(statement, statement.executeQuery());
+                    }
+                    throw new UnsupportedOperationException(method.toString());
+                });
+    }
+
+    @Override
+    public void close() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * 按位置绑定 ? 参数
+     */
+    PreparedStatement bind(String sql, Object... args) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < args.length; i++) {
+            statement.setObject(i + 1, args[i]);
+        }
+        return statement;
+    }
+
+    private static String readPlan(PreparedStatement statement) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                plan.append(rows.getString("detail")).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    // Cursor 的列序号从 0 开始，ResultSet 从 1 开始
+    private static Cursor cursor(PreparedStatement statement, ResultSet rows) {
+        return (Cursor) Proxy.newProxyInstance(TestDatabase.class.getClassLoader(),
+                new Class<?>[]{Cursor.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "moveToNext":
+                            return rows.next();
+                        case "isNull":
+                            return rows.getObject((int) args[0] + 1) == null;
+                        case "getLong":
+                            return rows.getLong((int) args[0] + 1);
+                        case "getInt":
+                            return rows.getInt((int) args[0] + 1);
+                        case "getString":
+                            return rows.getString((int) args[0] + 1);
+                        case "getBlob":
+                            return rows.getBytes((int) args[0] + 1);
+                        case "close":
+                            rows.close();
+                            statement.close();
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.toString());
+                    }
+                });
+    }
+
+    interface SqlWork {
+        void run() throws SQLException;
+    }
+}
@@ -0,0 +1,177 @@
+package com.dogcuisine.ui;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 用 JVM 自带的 JPEG 编码器在一组合成照片上复现导入流程，对比逐档试压与按探测图预估的编码次数与耗时。
+ * 照片为 1600 长边（导入时的上限），细节程度从平滑到高噪点，覆盖起始质量即可和降到最低质量的情况
+ */
+public class JpegQualityCorpusTest {
+
+    private static final int[][] SIZES = {{1600, 1200}, {1200, 1600}, {1600, 900}, {1000, 750}};
+    private static final int[] NOISE = {0, 12, 24, 48};
+
+    private static final List<BufferedImage> corpus = new ArrayList<>();
+
+    @BeforeClass
+    public static void createCorpus() {
+        Random random = new Random(23);
+        for (int[] size : SIZES) {
+            for (int noise : NOISE) {
+                corpus.add(photo(size[0], size[1], noise, random));
+            }
+        }
+    }
+
+    @Test
+    public void predictiveSelection_atMostTwoFullEncodesPerImage() throws IOException {
+        Stats legacy = new Stats();
+        Stats predictive = new Stats();
+        for (BufferedImage image : corpus) {
+            long start = System.nanoTime();
+            int legacyQuality = encodeLegacy(image, legacy);
+            legacy.nanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int quality = encodePredictive(image, predictive);
+            predictive.nanos += System.nanoTime() - start;
+
+            assertTrue(predictive.lastFullEncodes + " encodes", predictive.lastFullEncodes <= 2);
+            // 预估可能偏保守，但不会比逐档试压低一档以上
+            assertTrue(quality + " vs " + legacyQuality, quality >= legacyQuality - JpegQuality.STEP);
+        }
+        System.out.printf("legacy:     %d full encodes, %.0f ms%n", legacy.fullEncodes, legacy.nanos / 1e6);
+        System.out.printf("predictive: %d full encodes + %d probes, %.0f ms%n",
+                predictive.fullEncodes, predictive.probes, predictive.nanos / 1e6);
+
+        // 语料中有需要降质量的照片，逐档试压会多次编码
+        assertTrue(legacy.fullEncodes > corpus.size());
+        assertTrue(predictive.fullEncodes < legacy.fullEncodes);
+        // 探测图只有四分之一像素，总编码像素量也要更少
+        assertTrue(predictive.encodedPixels < legacy.encodedPixels);
+    }
+
+    // 改动前的做法：从起始质量开始每次降一档，直到不超过目标或到最低质量
+    private static int encodeLegacy(BufferedImage image, Stats stats) throws IOException {
+        int quality = JpegQuality.START;
+        while (true) {
+            long size = stats.fullEncode(image, quality);
+            if (size <= JpegQuality.TARGET_BYTES || quality <= JpegQuality.MIN) {
+                return quality;
+            }
+            quality -= JpegQuality.STEP;
+        }
+    }
+
+    // 与 ImageImporter.writeJpegFile 相同的流程
+    private static int encodePredictive(BufferedImage image, Stats stats) throws IOException {
+        stats.lastFullEncodes = 0;
+        long pixels = (long) image.getWidth() * image.getHeight();
+        int quality = JpegQuality.START;
+        if (JpegQuality.needsProbe(pixels)) {
+            int probeW = Math.max(1, Math.round(image.getWidth() * JpegQuality.PROBE_SCALE));
+            int probeH = Math.max(1, Math.round(image.getHeight() * JpegQuality.PROBE_SCALE));
+            BufferedImage probe = scale(image, probeW, probeH);
+            long probeBytes = encode(probe, JpegQuality.START);
+            stats.probes++;
+            stats.encodedPixels += (long) probeW * probeH;
+            quality = JpegQuality.fromProbe(probeBytes, (long) probeW * probeH, pixels);
+        }
+        long size = stats.fullEncode(image, quality);
+        int retry = JpegQuality.retry(quality, size);
+        if (retry != quality) {
+            stats.fullEncode(image, retry);
+            quality = retry;
+        }
+        return quality;
+    }
+
+    private static long encode(BufferedImage image, int quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality / 100f);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.size();
+    }
+
+    private static BufferedImage scale(BufferedImage image, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return scaled;
+    }
+
+    // 渐变背景加几块色斑，再叠加指定幅度的噪点模拟纹理细节
+    private static BufferedImage photo(int width, int height, int noise, Random random) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setPaint(new GradientPaint(0, 0, new Color(random.nextInt(0xFFFFFF)),
+                width, height, new Color(random.nextInt(0xFFFFFF))));
+        g.fillRect(0, 0, width, height);
+        for (int i = 0; i < 30; i++) {
+            g.setColor(new Color(random.nextInt(0xFFFFFF)));
+            g.fillOval(random.nextInt(width), random.nextInt(height), 40 + random.nextInt(400), 40 + random.nextInt(400));
+        }
+        g.dispose();
+        if (noise > 0) {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int rgb = image.getRGB(x, y);
+                    int d = random.nextInt(2 * noise + 1) - noise;
+                    image.setRGB(x, y, (clamp((rgb >> 16 & 0xFF) + d) << 16)
+                            | (clamp((rgb >> 8 & 0xFF) + d) << 8) | clamp((rgb & 0xFF) + d));
+                }
+            }
+        }
+        return image;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+
+    private static final class Stats {
+        int fullEncodes;
+        int lastFullEncodes;
+        int probes;
+        long encodedPixels;
+        long nanos;
+
+        long fullEncode(BufferedImage image, int quality) throws IOException {
+            fullEncodes++;
+            lastFullEncodes++;
+            encodedPixels += (long) image.getWidth() * image.getHeight();
+            return encode(image, quality);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.dogcuisine.ui;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class JpegQualityTest {
+
+    private static final int TARGET = JpegQuality.TARGET_BYTES;
+
+    @Test
+    public void pick_highestQualityThatFitsTheTarget() {
+        assertEquals(85, JpegQuality.pick(0));
+        assertEquals(85, JpegQuality.pick(TARGET));
+        // 起始质量超出一点，降一档即可
+        assertEquals(80, JpegQuality.pick(TARGET + 1));
+        assertEquals(80, JpegQuality.pick(TARGET / 0.83));
+        assertEquals(75, JpegQuality.pick(TARGET / 0.80));
+        assertEquals(65, JpegQuality.pick(TARGET / 0.58));
+    }
+
+    @Test
+    public void pick_minimumWhenNothingFits() {
+        assertEquals(JpegQuality.MIN, JpegQuality.pick(TARGET / 0.58 + 1));
+        assertEquals(JpegQuality.MIN, JpegQuality.pick(10.0 * TARGET));
+    }
+
+    @Test
+    public void pick_neverIncreasesWithSize() {
+        int previous = JpegQuality.START;
+        for (long size = 0; size <= 3L * TARGET; size += 1024) {
+            int quality = JpegQuality.pick(size);
+            assertTrue("size " + size, quality <= previous);
+            assertTrue(quality >= JpegQuality.MIN);
+            // 所选质量按比例估算的体积不超过目标，最低质量除外
+            assertTrue("size " + size, quality == JpegQuality.MIN || size * JpegQuality.sizeRatio(quality) <= TARGET);
+            previous = quality;
+        }
+    }
+
+    @Test
+    public void needsProbe_onlyForLargeImages() {
+        // 1600x1200 按每像素 0.5 字节估算会超出目标
+        assertTrue(JpegQuality.needsProbe(1600L * 1200));
+        assertFalse(JpegQuality.needsProbe(800L * 600));
+        assertFalse(JpegQuality.needsProbe(2L * TARGET));
+        assertTrue(JpegQuality.needsProbe(2L * TARGET + 1));
+    }
+
+    @Test
+    public void fromProbe_scalesProbeBytesToFullImage() {
+        long pixels = 1600L * 1200;
+        long probePixels = 800L * 600;
+        // 探测图 150KB：折算整图约 420KB，起始质量即可
+        assertEquals(85, JpegQuality.fromProbe(150 * 1024, probePixels, pixels));
+        // 探测图 250KB：折算约 700KB，需要降到 80
+        assertEquals(80, JpegQuality.fromProbe(250 * 1024, probePixels, pixels));
+        // 探测图 400KB：折算约 1120KB，降到最低也超出
+        assertEquals(JpegQuality.MIN, JpegQuality.fromProbe(400 * 1024, probePixels, pixels));
+        // 探测图为空时不除以零
+        assertEquals(85, JpegQuality.fromProbe(0, 0, pixels));
+    }
+
+    @Test
+    public void retry_keepsQualityWhenWithinTargetOrAtMinimum() {
+        assertEquals(85, JpegQuality.retry(85, TARGET));
+        assertEquals(75, JpegQuality.retry(75, 1000));
+        assertEquals(JpegQuality.MIN, JpegQuality.retry(JpegQuality.MIN, 5L * TARGET));
+    }
+
+    @Test
+    public void retry_reestimatesFromActualSize() {
+        // 85 实测 700KB：按比例 80 约 581KB，重编码一次到 80
+        assertEquals(80, JpegQuality.retry(85, 700 * 1024));
+        // 80 实测 900KB：折算起始质量约 1084KB，65 约 629KB 仍超出，直接用最低质量
+        assertEquals(JpegQuality.MIN, JpegQuality.retry(80, 900 * 1024));
+    }
+
+    @Test
+    public void retry_alwaysLowersQualityWhenOverTarget() {
+        assertEquals(70, JpegQuality.retry(75, TARGET + 1));
+        // 包括不在比例表里的质量
+        for (int quality = JpegQuality.MIN + 1; quality <= JpegQuality.START; quality++) {
+            int next = JpegQuality.retry(quality, TARGET + 1);
+            assertTrue(next < quality);
+            assertTrue(next >= JpegQuality.MIN);
+        }
+    }
+}